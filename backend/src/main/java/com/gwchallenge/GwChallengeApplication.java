@@ -3,6 +3,8 @@ package com.gwchallenge;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.TimeZone;
+
 /**
  * Classe principal da aplicação Spring Boot.
  * 
@@ -22,6 +24,9 @@ public class GwChallengeApplication {
      * @param args argumentos de linha de comando (opcional)
      */
     public static void main(String[] args) {
+        // Todas as datas/horas da aplicação são UTC (event_timestamp é TIMESTAMPTZ)
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+
         // Inicializa o contexto Spring e inicia o servidor embutido (Tomcat)
         SpringApplication.run(GwChallengeApplication.class, args);
     }
@@ -0,0 +1,289 @@
+package com.gwchallenge.cluster;
+
+import com.gwchallenge.repository.ChangeFeedRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Barramento entre as réplicas do backend via PostgreSQL LISTEN/NOTIFY (sem broker).
+ *
+ * Envio: a transação que grava no feed de alterações executa
+ * {@code pg_notify('gw_changes', <id do nó>)}. O PostgreSQL só entrega a notificação
+ * no COMMIT (nada é enviado em um rollback) e junta as repetidas da mesma transação,
+ * então há no máximo uma notificação por transação.
+ *
+ * Recebimento: cada nó mantém uma conexão dedicada (fora do pool do Hikari) com
+ * LISTEN gw_changes, em uma thread própria. As notificações de outros nós que chegam
+ * juntas (ou dentro de {@code batch-window-ms}) viram um único ClusterChangeEvent local;
+ * as do próprio nó são ignoradas (já tratadas após o commit).
+ *
+ * Consistência: a notificação só avisa "o feed mudou". Os consumidores (long-poll do feed,
+ * TrackingCodeFilter, StuckPackageDetector) releem o feed a partir do próprio cursor, então
+ * uma notificação perdida no máximo atrasa a atualização. Após cada (re)conexão é publicado
+ * um evento de ressincronização, cobrindo o que mudou enquanto o nó estava desconectado.
+ * Falhas na conexão são retentadas com backoff exponencial.
+ */
+@Component
+@Lazy(false)
+@Order(1) // Depois da construção dos índices em memória (@Order(0))
+public class ClusterBus implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterBus.class);
+
+    private static final String CHANNEL = "gw_changes";
+
+    /** Chave do recurso de transação que marca "NOTIFY já enviado nesta transação". */
+    private static final Object NOTIFY_SENT = new Object();
+
+    @Autowired
+    private ChangeFeedRepository changeFeedRepository;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gw.cluster-bus.enabled:false}")
+    private boolean enabled;
+
+    /** Espera máxima por notificações; sem nenhuma, a conexão é testada (SELECT 1). */
+    @Value("${gw.cluster-bus.heartbeat-ms:10000}")
+    private int heartbeatMillis;
+
+    /** Após a primeira notificação, espera mais esse tempo para agrupar as seguintes. */
+    @Value("${gw.cluster-bus.batch-window-ms:50}")
+    private long batchWindowMillis;
+
+    @Value("${gw.cluster-bus.reconnect.initial-ms:1000}")
+    private long reconnectInitialMillis;
+
+    @Value("${gw.cluster-bus.reconnect.max-ms:30000}")
+    private long reconnectMaxMillis;
+
+    /** Identifica as notificações deste nó (ignoradas no recebimento). */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Connection listenerConnection;
+    private Thread listenerThread;
+
+    private Counter received;
+    private Counter dispatches;
+    private Counter reconnects;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("gw.cluster-bus.connected", this, b -> b.connected ? 1 : 0)
+                .description("Conexão LISTEN do barramento entre nós ativa (1) ou não (0)")
+                .register(meterRegistry);
+        received = meterRegistry.counter("gw.cluster-bus.received");
+        dispatches = meterRegistry.counter("gw.cluster-bus.dispatches");
+        reconnects = meterRegistry.counter("gw.cluster-bus.reconnects");
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cluster-bus-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        closeQuietly(listenerConnection); // Desbloqueia a espera por notificações
+    }
+
+    /**
+     * Indica se este nó está recebendo as notificações dos outros nós (LISTEN ativo).
+     */
+    public boolean isConnected() {
+        return enabled && connected;
+    }
+
+    /**
+     * Chamado na transação que grava no feed: agenda a notificação aos outros nós
+     * (entregue pelo PostgreSQL no COMMIT). Um único NOTIFY por transação.
+     */
+    public void publishChange() {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(NOTIFY_SENT)) {
+            return;
+        }
+        changeFeedRepository.notifyChannel(CHANNEL, nodeId);
+        TransactionSynchronizationManager.bindResource(NOTIFY_SENT, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(NOTIFY_SENT);
+            }
+        });
+    }
+
+    // ==================== RECEBIMENTO ====================
+
+    private void listen() {
+        long backoff = reconnectInitialMillis;
+        while (running) {
+            try (Connection connection = openListenerConnection()) {
+                listenerConnection = connection;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                connected = true;
+                backoff = reconnectInitialMillis;
+                log.info("LISTEN {} (nó {})", CHANNEL, nodeId);
+
+                // Alterações feitas enquanto este nó não escutava
+                dispatch(new ClusterChangeEvent(0, true));
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(heartbeatMillis);
+                    int remote = countRemote(notifications);
+                    if (remote > 0) {
+                        remote += collectBatch(pgConnection);
+                        dispatch(new ClusterChangeEvent(remote, false));
+                    } else if (notifications == null || notifications.length == 0) {
+                        heartbeat(connection);
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                if (!running) {
+                    break;
+                }
+                connected = false;
+                reconnects.increment();
+                log.warn("Falha na conexão LISTEN; nova tentativa em {} ms", backoff, ex);
+                if (!sleep(backoff)) {
+                    break;
+                }
+                backoff = Math.min(backoff * 2, reconnectMaxMillis);
+            } finally {
+                connected = false;
+                listenerConnection = null;
+            }
+        }
+    }
+
+    /**
+     * Conexão dedicada (não vem do pool: ficaria presa indefinidamente).
+     */
+    private Connection openListenerConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", dataSourceProperties.determineUsername());
+        properties.setProperty("password", dataSourceProperties.determinePassword());
+        properties.setProperty("ApplicationName", "gw-cluster-bus");
+        properties.setProperty("tcpKeepAlive", "true");
+        // Heartbeat travado (rede caiu sem RST) falha em vez de bloquear a thread para sempre
+        properties.setProperty("socketTimeout", String.valueOf(Math.max(1, 3 * heartbeatMillis / 1000)));
+
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        } catch (SQLException ex) {
+            closeQuietly(connection);
+            throw ex;
+        }
+        return connection;
+    }
+
+    /**
+     * Junta as notificações que chegarem dentro da janela de agrupamento.
+     */
+    private int collectBatch(PGConnection pgConnection) throws SQLException {
+        int remote = 0;
+        long deadline = System.nanoTime() + batchWindowMillis * 1_000_000L;
+        long remaining;
+        while ((remaining = (deadline - System.nanoTime()) / 1_000_000L) > 0) {
+            PGNotification[] more = pgConnection.getNotifications((int) remaining);
+            if (more == null || more.length == 0) {
+                break;
+            }
+            remote += countRemote(more);
+        }
+        return remote;
+    }
+
+    private int countRemote(PGNotification[] notifications) {
+        if (notifications == null) {
+            return 0;
+        }
+        int remote = 0;
+        for (PGNotification notification : notifications) {
+            if (!nodeId.equals(notification.getParameter())) {
+                remote++;
+            }
+        }
+        received.increment(remote);
+        return remote;
+    }
+
+    private void dispatch(ClusterChangeEvent event) {
+        dispatches.increment();
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException ex) {
+            // Falha de um consumidor não derruba a conexão LISTEN
+            log.error("Falha ao processar {}", event, ex);
+        }
+    }
+
+    private void heartbeat(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Conexão já inválida
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.gwchallenge.cluster;
+
+/**
+ * Evento local (ApplicationEventPublisher) publicado pelo ClusterBus quando outros nós
+ * confirmaram alterações no feed.
+ *
+ * Não carrega as alterações: cada consumidor relê o feed a partir do próprio cursor,
+ * então notificações agrupadas, duplicadas ou perdidas não causam inconsistência.
+ */
+public class ClusterChangeEvent {
+
+    /** Notificações de outros nós agrupadas neste evento (0 em uma ressincronização). */
+    private final int notifications;
+
+    /** true após (re)conectar: notificações podem ter sido perdidas enquanto desconectado. */
+    private final boolean resync;
+
+    public ClusterChangeEvent(int notifications, boolean resync) {
+        this.notifications = notifications;
+        this.resync = resync;
+    }
+
+    public int getNotifications() {
+        return notifications;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterChangeEvent{" +
+                "notifications=" + notifications +
+                ", resync=" + resync +
+                '}';
+    }
+}
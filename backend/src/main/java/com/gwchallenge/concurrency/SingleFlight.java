@@ -0,0 +1,95 @@
+package com.gwchallenge.concurrency;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalescência de carregamentos concorrentes ("single-flight").
+ *
+ * Chamadas simultâneas para a mesma chave compartilham um único carregamento:
+ * - A primeira chamada (líder) registra um CompletableFuture no mapa e executa o loader
+ *   na própria thread (mantendo transação/contexto da requisição)
+ * - As demais (seguidoras) encontram o future via putIfAbsent e aguardam o resultado
+ * - Uma exceção do loader é propagada a todas as chamadas daquele carregamento
+ * - Ao terminar, o líder remove o future: chamadas posteriores fazem um novo carregamento
+ *   (não é cache; só agrupa o que está em andamento)
+ *
+ * Uma seguidora espera no máximo {@code timeoutMillis}; depois disso executa o próprio
+ * carregamento, para que um líder travado não prenda todas as requisições da chave.
+ *
+ * Nenhum lock: o único ponto de coordenação é o ConcurrentHashMap.
+ *
+ * @param <K> tipo da chave (ex: tracking code)
+ * @param <V> tipo do resultado
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    /**
+     * @param timeoutMillis espera máxima de uma seguidora pelo carregamento do líder
+     */
+    public SingleFlight(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeoutMillis must be positive");
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Executa o loader ou aguarda o carregamento já em andamento para a chave.
+     *
+     * @param key chave do carregamento
+     * @param loader carregamento (executado no máximo uma vez por grupo de chamadas simultâneas)
+     * @return resultado do loader
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing == null) {
+            // Líder
+            try {
+                V value = loader.get();
+                flight.complete(value);
+                return value;
+            } catch (RuntimeException | Error ex) {
+                flight.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+
+        // Seguidora
+        try {
+            return existing.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException ex) {
+            return loader.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando carregamento de " + key, ex);
+        }
+    }
+
+    /**
+     * Quantidade de carregamentos em andamento (diagnóstico).
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
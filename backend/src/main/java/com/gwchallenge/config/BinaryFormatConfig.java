@@ -0,0 +1,128 @@
+package com.gwchallenge.config;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.gwchallenge.dto.EventResponseDTO;
+import com.gwchallenge.dto.PackageResponseDTO;
+import com.gwchallenge.model.EventStatus;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Formato binário compacto (CBOR) para integrações de alto volume.
+ *
+ * Selecionado pelo header {@code Accept: application/cbor}; sem ele, a resposta
+ * continua em JSON exatamente como antes. Em relação ao JSON:
+ * - DTOs são escritos como arrays posicionais (sem repetir nomes de campos)
+ * - Timestamps viram epoch millis (UTC) em vez de strings ISO 8601
+ * - EventStatus é escrito pelo código numérico estável (EventStatus.getCode, o mesmo do banco),
+ *   não pelo ordinal: reordenar o enum não muda o formato. Na leitura, aceita o código ou o nome
+ *
+ * Ordem dos campos (contrato com os clientes binários):
+ * - EventResponseDTO: [id, eventTimestamp, status, description, trackingCode]
+ * - PackageResponseDTO: [trackingCode, clientName, deliveryAddress, events, totalEvents]
+ *
+ * Respostas com {@code ?fields=} são mapas com os nomes dos campos pedidos (não há
+ * posição fixa para um subconjunto de campos); os valores seguem as regras acima.
+ */
+@Configuration
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborObjectMapper()));
+    }
+
+    ObjectMapper cborObjectMapper() {
+        SimpleModule compactModule = new SimpleModule("CompactBinaryModule");
+        compactModule.addSerializer(LocalDateTime.class, new EpochMillisSerializer());
+        compactModule.addSerializer(EventStatus.class, new EventStatusCodeSerializer());
+        compactModule.addDeserializer(EventStatus.class, new EventStatusCodeDeserializer());
+
+        return Jackson2ObjectMapperBuilder.cbor()
+                .modulesToInstall(compactModule)
+                .mixIn(EventResponseDTO.class, EventArrayMixin.class)
+                .mixIn(PackageResponseDTO.class, PackageArrayMixin.class)
+                .build();
+    }
+
+    /**
+     * Serializa LocalDateTime (gravado em UTC) como epoch millis.
+     */
+    static class EpochMillisSerializer extends StdSerializer<LocalDateTime> {
+
+        EpochMillisSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    /**
+     * Serializa EventStatus pelo código estável.
+     */
+    static class EventStatusCodeSerializer extends StdSerializer<EventStatus> {
+
+        EventStatusCodeSerializer() {
+            super(EventStatus.class);
+        }
+
+        @Override
+        public void serialize(EventStatus value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.getCode());
+        }
+    }
+
+    /**
+     * Lê EventStatus pelo código estável (ou pelo nome, como no JSON).
+     */
+    static class EventStatusCodeDeserializer extends StdDeserializer<EventStatus> {
+
+        EventStatusCodeDeserializer() {
+            super(EventStatus.class);
+        }
+
+        @Override
+        public EventStatus deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            try {
+                if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                    return EventStatus.fromCode(parser.getShortValue());
+                }
+                return EventStatus.valueOf(parser.getValueAsString());
+            } catch (IllegalArgumentException ex) {
+                return (EventStatus) context.handleWeirdStringValue(EventStatus.class, parser.getText(),
+                        "status inválido");
+            }
+        }
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "eventTimestamp", "status", "description", "trackingCode"})
+    abstract static class EventArrayMixin {
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"trackingCode", "clientName", "deliveryAddress", "events", "totalEvents"})
+    abstract static class PackageArrayMixin {
+    }
+}
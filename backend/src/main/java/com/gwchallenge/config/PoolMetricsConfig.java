@@ -0,0 +1,48 @@
+package com.gwchallenge.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+
+/**
+ * Ocupação do pool de conexões (HikariCP).
+ *
+ * O Spring Boot já publica as métricas do Hikari: hikaricp.connections.active / pending,
+ * hikaricp.connections.usage (tempo que cada conexão fica emprestada) e
+ * hikaricp.connections.acquire (espera por uma conexão livre), com percentis
+ * configurados em management.metrics.distribution.
+ *
+ * Aqui é adicionada a ocupação relativa, gw.db.pool.occupancy = ativas / máximo (0 a 1).
+ * Perto de 1 com pending > 0, as requisições estão esperando conexão: com open-in-view
+ * desligado isso reflete o trabalho no banco, não o tempo de serialização das respostas.
+ */
+@Configuration
+public class PoolMetricsConfig {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void init() {
+        if (!(dataSource instanceof HikariDataSource)) {
+            return;
+        }
+        Gauge.builder("gw.db.pool.occupancy", (HikariDataSource) dataSource, PoolMetricsConfig::occupancy)
+                .description("Conexões do pool em uso / tamanho máximo do pool")
+                .register(meterRegistry);
+    }
+
+    private static double occupancy(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean(); // null até o pool iniciar
+        return pool == null ? 0 : (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+}
@@ -0,0 +1,80 @@
+package com.gwchallenge.config;
+
+import com.gwchallenge.ratelimit.AdaptiveConcurrencyLimiter;
+import com.gwchallenge.ratelimit.ClientRateLimiter;
+import com.gwchallenge.ratelimit.RateLimitFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Configuração do controle de admissão (rate limiting + load shedding).
+ *
+ * Os limites são definidos em application.yml (gw.rate-limit.*) e podem ser
+ * desligados com gw.rate-limit.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "gw.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Value("${gw.rate-limit.max-clients:100000}")
+    private int maxClients;
+
+    /** Limitadores de leitura e escrita (resolvidos na hora, para a limpeza agendada). */
+    @Autowired
+    private ObjectProvider<ClientRateLimiter> rateLimiters;
+
+    @Bean
+    public ClientRateLimiter readRateLimiter(
+            @Value("${gw.rate-limit.read.permits-per-second:50}") double permitsPerSecond,
+            @Value("${gw.rate-limit.read.burst:100}") int burst) {
+        return new ClientRateLimiter(permitsPerSecond, burst, maxClients);
+    }
+
+    @Bean
+    public ClientRateLimiter writeRateLimiter(
+            @Value("${gw.rate-limit.write.permits-per-second:10}") double permitsPerSecond,
+            @Value("${gw.rate-limit.write.burst:20}") int burst) {
+        return new ClientRateLimiter(permitsPerSecond, burst, maxClients);
+    }
+
+    /**
+     * Descarta os buckets ociosos em segundo plano (gw.rate-limit.evict-interval-ms),
+     * abrindo espaço para clientes novos sem varrer o mapa na thread da requisição.
+     */
+    @Scheduled(fixedDelayString = "${gw.rate-limit.evict-interval-ms:10000}")
+    public void evictIdleClients() {
+        rateLimiters.forEach(ClientRateLimiter::evictIdle);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+            @Value("${gw.rate-limit.concurrency.initial-limit:50}") int initialLimit,
+            @Value("${gw.rate-limit.concurrency.min-limit:10}") int minLimit,
+            @Value("${gw.rate-limit.concurrency.max-limit:200}") int maxLimit,
+            @Value("${gw.rate-limit.concurrency.target-latency-ms:250}") long targetLatencyMillis,
+            @Value("${gw.rate-limit.concurrency.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, targetLatencyMillis, backoffRatio);
+    }
+
+    /**
+     * Registra o filtro logo após o CorsFilter, apenas nas rotas da API e de autenticação.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(@Qualifier("readRateLimiter") ClientRateLimiter readRateLimiter,
+                                                                   @Qualifier("writeRateLimiter") ClientRateLimiter writeRateLimiter,
+                                                                   AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(readRateLimiter, writeRateLimiter, adaptiveConcurrencyLimiter));
+        registration.addUrlPatterns("/api/*", "/auth/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
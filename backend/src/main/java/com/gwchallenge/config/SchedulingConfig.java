@@ -0,0 +1,12 @@
+package com.gwchallenge.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita tarefas agendadas (@Scheduled), como o relay da outbox de webhooks.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,82 @@
+package com.gwchallenge.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Medição do tempo de inicialização.
+ *
+ * Registra no log, a partir do início da JVM:
+ * - quanto tempo até a aplicação ficar pronta (ApplicationReadyEvent)
+ * - quanto tempo até a primeira requisição ser respondida (time-to-first-request),
+ *   que inclui a inicialização tardia de beans lazy
+ *
+ * Com gw.startup.exit-after-ready=true a aplicação encerra assim que fica pronta.
+ * É usado no build da imagem Docker para gerar o arquivo AppCDS (treino da JVM).
+ */
+@Configuration
+public class StartupTimingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingConfig.class);
+
+    @Value("${gw.startup.exit-after-ready:false}")
+    private boolean exitAfterReady;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Aplicação pronta em {} ms (desde o início da JVM)", jvmUptimeMillis());
+
+        if (exitAfterReady) {
+            ApplicationContext context = event.getApplicationContext();
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    /**
+     * Filtro que mede apenas a primeira requisição e depois vira um repasse direto.
+     */
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> firstRequestTimingFilter() {
+        AtomicBoolean measured = new AtomicBoolean(false);
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    if (!measured.get() && measured.compareAndSet(false, true)) {
+                        log.info("Primeira requisição respondida em {} ms (desde o início da JVM): {} {}",
+                                jvmUptimeMillis(), request.getMethod(), request.getRequestURI());
+                    }
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setName("firstRequestTimingFilter");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static long jvmUptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,113 @@
+package com.gwchallenge.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Modo de execução em virtual threads (opcional, gw.virtual-threads.enabled).
+ *
+ * As requisições passam quase todo o tempo bloqueadas no JDBC; com o pool de threads do
+ * Tomcat (200 por padrão), o número de threads limita a vazão antes da CPU. Neste modo
+ * cada requisição (e cada tarefa @Async / MVC assíncrona) roda em uma virtual thread nova,
+ * e o limite de concorrência no banco passa a ser explícito: o pool do Hikari
+ * (maximum-pool-size + connection-timeout), além do limitador adaptativo de carga.
+ *
+ * Virtual threads existem a partir do JDK 21. A aplicação compila para Java 17, então a
+ * API é obtida por reflexão: em um JDK sem virtual threads a opção é ignorada (com aviso)
+ * e o Tomcat continua com o pool de threads comum.
+ *
+ * Pinning (virtual thread presa ao carrier durante um bloqueio): ver "Virtual Threads" no
+ * BACKEND.md. O código da aplicação não usa synchronized; o driver PostgreSQL gerenciado pelo
+ * Spring Boot 2.7 (42.3) sincroniza cada query e precisa ser atualizado junto com o JDK 21.
+ */
+@Configuration
+@Conditional(VirtualThreadConfig.VirtualThreadsEnabled.class)
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    private final ExecutorService virtualThreads = newVirtualThreadExecutor("gw-vt-");
+
+    /**
+     * Tomcat entrega cada requisição ao executor de virtual threads (em vez do pool próprio).
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> factory.addProtocolHandlerCustomizers(
+                protocolHandler -> protocolHandler.setExecutor(virtualThreads));
+    }
+
+    /**
+     * Executor de @Async e das requisições assíncronas do Spring MVC.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        log.info("Requisições e tarefas assíncronas em virtual threads");
+        return new TaskExecutorAdapter(virtualThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        virtualThreads.shutdown();
+    }
+
+    /**
+     * Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory()),
+     * por reflexão (API do JDK 21).
+     *
+     * @return executor, ou null se o JDK não tiver virtual threads
+     */
+    static ExecutorService newVirtualThreadExecutor(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            // JDK < 21 (ou 19/20 sem --enable-preview)
+            return null;
+        }
+    }
+
+    /**
+     * Ativa a configuração só com gw.virtual-threads.enabled=true e um JDK com virtual threads.
+     */
+    static class VirtualThreadsEnabled implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            if (!context.getEnvironment().getProperty("gw.virtual-threads.enabled", Boolean.class, false)) {
+                return false;
+            }
+            ExecutorService probe = newVirtualThreadExecutor("gw-vt-probe-");
+            if (probe == null) {
+                log.warn("JDK {} sem virtual threads (requer 21+); mantendo o pool de threads do Tomcat",
+                        Runtime.version().feature());
+                return false;
+            }
+            probe.shutdown();
+            return true;
+        }
+    }
+}
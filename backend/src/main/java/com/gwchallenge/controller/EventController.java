@@ -1,14 +1,22 @@
 package com.gwchallenge.controller;
 
+import com.gwchallenge.dto.ChangeFeedDTO;
 import com.gwchallenge.dto.CreateEventDTO;
+import com.gwchallenge.dto.EventPageDTO;
 import com.gwchallenge.dto.EventResponseDTO;
+import com.gwchallenge.dto.TimelineSyncDTO;
+import com.gwchallenge.model.EventStatus;
+import com.gwchallenge.service.ChangeFeedService;
 import com.gwchallenge.service.EventService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -32,6 +40,9 @@ public class EventController {
     @Autowired
     private EventService eventService;
 
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
     /**
      * GET /api/events
      * Lista todos os eventos cadastrados no sistema.
@@ -44,17 +55,104 @@ public class EventController {
         return ResponseEntity.ok(events);
     }
 
+    /**
+     * GET /api/events/feed?after=0&limit=100&wait=20
+     * Feed ordenado de alterações (criações e remoções de pacotes/eventos).
+     * 
+     * O consumidor guarda o {@code cursor} da resposta e o envia como {@code after}
+     * na próxima chamada. Com {@code wait} > 0, se não houver alterações, a requisição
+     * aguarda até {@code wait} segundos (long-poll) em vez de o consumidor ficar em loop.
+     * 
+     * @param after Último seq consumido (0 = desde o início)
+     * @param limit Máximo de alterações por resposta (opcional)
+     * @param wait Segundos de espera quando não há alterações (0 = responde na hora)
+     * @return ChangeFeedDTO com as alterações e o próximo cursor
+     */
+    @GetMapping("/feed")
+    public DeferredResult<ChangeFeedDTO> getChangeFeed(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int wait) {
+
+        return changeFeedService.poll(after, limit, wait);
+    }
+
+    /**
+     * GET /api/events/search?status=UNDELIVERED&from=2025-11-01T00:00:00&to=2025-11-01T06:00:00
+     * Busca eventos de todos os pacotes por status e janela de tempo (mais recentes primeiro).
+     * 
+     * Paginação por keyset: enquanto {@code hasMore} for true, envie o {@code nextCursor}
+     * da resposta como {@code cursor} (mantendo os mesmos filtros).
+     * 
+     * @param status Status dos eventos (opcional; sem ele, todos os status)
+     * @param from Início da janela em ISO 8601, inclusivo (opcional; padrão: 24h antes de {@code to})
+     * @param to Fim da janela em ISO 8601, exclusivo (opcional; padrão: agora)
+     * @param limit Tamanho da página (opcional)
+     * @param cursor Cursor da página anterior (opcional)
+     * @return EventPageDTO com os eventos e o cursor da próxima página
+     */
+    @GetMapping("/search")
+    public ResponseEntity<EventPageDTO> searchEvents(
+            @RequestParam(required = false) EventStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+
+        EventPageDTO page = eventService.searchEvents(status, from, to, limit, cursor);
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * GET /api/events/package/{trackingCode}
      * Busca todos os eventos de um pacote específico.
      * 
+     * Sincronização incremental (opcional):
+     * - ?sinceId=123 → apenas eventos com ID maior que 123
+     * - ?since=2025-11-01T10:00:00Z → apenas eventos posteriores à data (primeira sincronização)
+     * Nesses casos a resposta é um TimelineSyncDTO com o cursor para a próxima chamada.
+     * 
+     * Seleção de campos (opcional): ?fields=status,eventTimestamp → cada evento traz só
+     * os campos pedidos, lidos diretamente na consulta.
+     * 
+     * Paginação (opcional, para históricos longos): ?limit=100 → EventPageDTO com os eventos
+     * mais recentes; enquanto {@code hasMore} for true, envie o {@code nextCursor} como
+     * {@code before} para a página seguinte (mais antiga).
+     * 
      * @param trackingCode Código de rastreio do pacote
-     * @return Lista de EventResponseDTO ordenada por data (mais recentes primeiro)
+     * @param sinceId Último ID de evento conhecido pelo cliente (opcional)
+     * @param since Data/hora de corte em ISO 8601 (opcional)
+     * @param fields Campos separados por vírgula (opcional; ver EventField)
+     * @param limit Tamanho da página (opcional)
+     * @param before Cursor da página anterior (opcional)
+     * @return Lista de EventResponseDTO ordenada por data (mais recentes primeiro),
+     *         TimelineSyncDTO quando sinceId/since for informado,
+     *         lista de mapas campo → valor com {@code fields},
+     *         ou EventPageDTO com {@code limit}/{@code before}
      */
     @GetMapping("/package/{trackingCode}")
-    public ResponseEntity<List<EventResponseDTO>> getEventsByPackage(
-            @PathVariable String trackingCode) {
-        
+    public ResponseEntity<?> getEventsByPackage(
+            @PathVariable String trackingCode,
+            @RequestParam(required = false) Long sinceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String before) {
+
+        if (sinceId != null || since != null) {
+            TimelineSyncDTO sync = eventService.getEventsSince(trackingCode, sinceId, since);
+            return ResponseEntity.ok(sync);
+        }
+
+        if (fields != null) {
+            return ResponseEntity.ok(eventService.getEventFieldsByTrackingCode(trackingCode, fields));
+        }
+
+        if (limit != null || before != null) {
+            EventPageDTO page = eventService.getEventPage(trackingCode, limit, before);
+            return ResponseEntity.ok(page);
+        }
+
         List<EventResponseDTO> events = eventService.getEventsByTrackingCode(trackingCode);
         return ResponseEntity.ok(events);
     }
@@ -0,0 +1,118 @@
+package com.gwchallenge.controller;
+
+import com.gwchallenge.export.ExportFormat;
+import com.gwchallenge.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Controlador REST para exportação em massa.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final int GZIP_BUFFER = 8192;
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * GET /api/export/packages?format=ndjson|csv&since=GW...
+     * Exporta todos os pacotes com seus eventos, em ordem de código de rastreio.
+     * 
+     * - ndjson: um pacote por linha, no formato de PackageResponseDTO
+     * - csv: uma linha por evento (dados do pacote repetidos; pacote sem eventos em uma linha
+     *   com as colunas de evento vazias)
+     * 
+     * Com gzip aceito em {@code Accept-Encoding} (q > 0) a saída é comprimida durante o envio
+     * ({@code Content-Encoding: gzip}).
+     * 
+     * Retomada: se a transferência cair, envie como {@code since} o código do último pacote
+     * recebido por completo (no CSV, descarte as linhas do último pacote, que pode ter
+     * chegado pela metade).
+     * 
+     * A escrita roda fora da thread da requisição (StreamingResponseBody): o limitador de
+     * concorrência não conta a exportação como uma requisição lenta, e o tempo máximo é o de
+     * spring.mvc.async.request-timeout.
+     * 
+     * @param format ndjson (padrão) ou csv
+     * @param since Código do último pacote já recebido, exclusivo (opcional)
+     * @return Corpo transmitido em partes com status 200 OK
+     */
+    @GetMapping("/packages")
+    public ResponseEntity<StreamingResponseBody> exportPackages(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        // Valida antes de iniciar a resposta (formato inválido → 400)
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                // syncFlush: cada flush do writer chega ao cliente (não fica retido no deflater)
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER, true);
+                exportService.exportPackages(exportFormat, since, compressed);
+                compressed.finish();
+            } else {
+                exportService.exportPackages(exportFormat, since, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"packages." + exportFormat.getExtension() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Indica se o cliente aceita gzip (RFC 9110, seção 12.5.3): codificações separadas por
+     * vírgula, cada uma com um q opcional (padrão 1). {@code gzip;q=0} recusa o gzip; sem
+     * menção explícita a gzip, vale o q de {@code *}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double wildcard = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.length() > 2 && param.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        q = 0; // q inválido: trata a codificação como não aceita
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = Math.max(gzip, q);
+            } else if (name.equals("*")) {
+                wildcard = Math.max(wildcard, q);
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : wildcard > 0;
+    }
+}
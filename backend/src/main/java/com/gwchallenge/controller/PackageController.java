@@ -1,10 +1,20 @@
 package com.gwchallenge.controller;
 
 import com.gwchallenge.dto.CreatePackageDTO;
+import com.gwchallenge.dto.CreatePackagesBatchDTO;
 import com.gwchallenge.dto.PackageResponseDTO;
+import com.gwchallenge.dto.PurgeJobDTO;
+import com.gwchallenge.dto.PurgeRequestDTO;
+import com.gwchallenge.dto.StuckPackageDTO;
+import com.gwchallenge.model.EventStatus;
 import com.gwchallenge.service.PackageService;
+import com.gwchallenge.service.PurgeService;
+import com.gwchallenge.service.StuckPackageDetector;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,30 +34,84 @@ public class PackageController {
     @Autowired
     private PackageService packageService;
 
+    @Autowired
+    private PurgeService purgeService;
+
+    @Autowired
+    private StuckPackageDetector stuckPackageDetector;
+
     /**
      * GET /api/packages
      * Lista todos os pacotes cadastrados.
      * 
-     * @return Lista de PackageResponseDTO
+     * Com {@code ?fields=trackingCode,latestStatus} cada pacote traz só os campos pedidos
+     * (lidos diretamente na consulta; eventos só com {@code events}).
+     * 
+     * @param fields Campos separados por vírgula (opcional; ver PackageField)
+     * @return Lista de PackageResponseDTO, ou de mapas campo → valor com {@code fields}
      */
     @GetMapping
-    public ResponseEntity<List<PackageResponseDTO>> getAllPackages() {
+    public ResponseEntity<?> getAllPackages(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(packageService.getAllPackagesFields(fields));
+        }
+
         List<PackageResponseDTO> packages = packageService.getAllPackages();
         return ResponseEntity.ok(packages);
     }
 
+    /**
+     * GET /api/packages/stuck?status=OUT_FOR_DELIVERY&limit=100
+     * Pacotes parados em IN_TRANSIT ou OUT_FOR_DELIVERY além do SLA,
+     * do prazo mais antigo para o mais recente (índice em memória, sem varrer a tabela event).
+     * 
+     * @param status Filtra por status (opcional)
+     * @param limit Máximo de resultados (padrão 100)
+     * @return Lista de StuckPackageDTO
+     */
+    @GetMapping("/stuck")
+    public ResponseEntity<List<StuckPackageDTO>> getStuckPackages(
+            @RequestParam(required = false) EventStatus status,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        return ResponseEntity.ok(stuckPackageDetector.getStuckPackages(status, Math.max(1, limit)));
+    }
+
     /**
      * GET /api/packages/{trackingCode}
      * Busca um pacote específico por código de rastreio.
-     * Inclui todos os eventos do pacote.
+     * Inclui os eventos mais recentes e o total ({@code totalEvents}); a linha do tempo
+     * completa é paginada em /api/events/package/{trackingCode}?limit=.
+     * 
+     * Com {@code ?fields=trackingCode,latestStatus} a resposta traz só os campos pedidos
+     * (lidos diretamente na consulta; eventos só com {@code events}).
+     * 
+     * Em JSON o corpo é escrito direto das linhas da consulta (PackageService.getPackageJson);
+     * em CBOR ({@code Accept: application/cbor}) continua vindo do PackageResponseDTO.
      * 
      * @param trackingCode Código de rastreio do pacote
-     * @return PackageResponseDTO com dados completos do pacote
+     * @param fields Campos separados por vírgula (opcional; ver PackageField)
+     * @param accept Header Accept (escolhe entre o JSON direto e o DTO)
+     * @return PackageResponseDTO com dados completos do pacote, ou mapa campo → valor com {@code fields}
      */
     @GetMapping("/{trackingCode}")
-    public ResponseEntity<PackageResponseDTO> getPackageByTrackingCode(
-            @PathVariable String trackingCode) {
-        
+    public ResponseEntity<?> getPackageByTrackingCode(
+            @PathVariable String trackingCode,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        if (fields != null) {
+            return ResponseEntity.ok(packageService.getPackageFields(trackingCode, fields));
+        }
+
+        // JSON (caso comum): linhas do banco escritas direto no corpo, sem entidades/DTOs
+        if (prefersJson(accept)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(packageService.getPackageJson(trackingCode));
+        }
+
+        // Outros formatos (CBOR): DTO serializado pelo conversor negociado
         PackageResponseDTO pkg = packageService.getPackageByTrackingCode(trackingCode);
         return ResponseEntity.ok(pkg);
     }
@@ -57,7 +121,7 @@ public class PackageController {
      * Cria um novo pacote no sistema.
      * 
      * @param createPackageDTO Dados do pacote (validados com @Valid)
-     * @return PackageResponseDTO com status 201 Created
+     * @return PackageResponseDTO com status 201 Created (409 se o código já existir)
      */
     @PostMapping
     public ResponseEntity<PackageResponseDTO> createPackage(
@@ -67,10 +131,25 @@ public class PackageController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdPackage);
     }
 
+    /**
+     * POST /api/packages/batch
+     * Cria vários pacotes em uma única transação (tudo ou nada).
+     * 
+     * @param batch Pacotes a criar (até 1000, validados com @Valid)
+     * @return Pacotes criados com status 201 Created (409 se algum código já existir)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<PackageResponseDTO>> createPackages(
+            @Valid @RequestBody CreatePackagesBatchDTO batch) {
+
+        List<PackageResponseDTO> created = packageService.createPackages(batch.getPackages());
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
     /**
      * DELETE /api/packages/{trackingCode}
      * Deleta um pacote por código de rastreio.
-     * Eventos associados são deletados automaticamente (CascadeType.ALL).
+     * Eventos associados são deletados pelo banco (ON DELETE CASCADE).
      * 
      * @param trackingCode Código de rastreio do pacote
      * @return Status 204 No Content se deletado com sucesso
@@ -80,4 +159,58 @@ public class PackageController {
         packageService.deletePackage(trackingCode);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * POST /api/packages/purge
+     * Agenda um expurgo em lotes (pacotes entregues antes de uma data ou lista de códigos).
+     * O expurgo roda em background; acompanhe pelo GET com o jobId retornado.
+     * 
+     * @param request Critérios do expurgo
+     * @return PurgeJobDTO com status 202 Accepted
+     */
+    @PostMapping("/purge")
+    public ResponseEntity<PurgeJobDTO> purgePackages(@Valid @RequestBody PurgeRequestDTO request) {
+        PurgeJobDTO job = purgeService.startPurge(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * GET /api/packages/purge/{jobId}
+     * Consulta o andamento de um expurgo.
+     * 
+     * @param jobId ID retornado pelo POST /api/packages/purge
+     * @return PurgeJobDTO com o estado atual
+     */
+    @GetMapping("/purge/{jobId}")
+    public ResponseEntity<PurgeJobDTO> getPurgeJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(purgeService.getJob(jobId));
+    }
+
+    /**
+     * Indica se o primeiro tipo aceito (por qualidade) que o servidor produz é JSON.
+     * Sem Accept, ou aceitando qualquer tipo, a resposta é JSON (conversor padrão).
+     */
+    private static boolean prefersJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> types = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(types);
+            for (MediaType type : types) {
+                if (type.getQualityValue() == 0) {
+                    continue;
+                }
+                if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    return true;
+                }
+                if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                    return false;
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+            // Negociação padrão do Spring decide (e responde o erro)
+        }
+        return false;
+    }
+}
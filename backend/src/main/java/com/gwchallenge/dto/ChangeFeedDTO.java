@@ -0,0 +1,64 @@
+package com.gwchallenge.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO de resposta do feed de alterações (GET /api/events/feed).
+ *
+ * O consumidor envia o {@code cursor} como {@code after} na próxima chamada.
+ */
+public class ChangeFeedDTO {
+
+    private List<ChangeFeedEntryDTO> entries = new ArrayList<>(); // Alterações em ordem de entrega (txid, seq)
+    private Long cursor;      // Seq da última alteração entregue (ou o próprio after, se não houve alterações)
+    private boolean hasMore;  // true se há mais alterações além do limite pedido
+
+    // ==================== CONSTRUTORES ====================
+
+    public ChangeFeedDTO() {
+    }
+
+    public ChangeFeedDTO(List<ChangeFeedEntryDTO> entries, Long cursor, boolean hasMore) {
+        this.entries = entries;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public List<ChangeFeedEntryDTO> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<ChangeFeedEntryDTO> entries) {
+        this.entries = entries;
+    }
+
+    public Long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(Long cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "ChangeFeedDTO{" +
+                "entries=" + entries +
+                ", cursor=" + cursor +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
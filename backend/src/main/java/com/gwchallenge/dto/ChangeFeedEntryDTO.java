@@ -0,0 +1,106 @@
+package com.gwchallenge.dto;
+
+import com.gwchallenge.model.ChangeType;
+import com.gwchallenge.model.EventStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de uma alteração do feed (GET /api/events/feed).
+ * Para EVENT_CREATED inclui um snapshot do evento, evitando uma segunda consulta pelo consumidor.
+ */
+public class ChangeFeedEntryDTO {
+
+    private Long seq;
+    private ChangeType type;
+    private String trackingCode;
+    private Long eventId;
+    private EventStatus status;
+    private LocalDateTime eventTimestamp;
+    private String description;
+    private LocalDateTime recordedAt;
+
+    // ==================== CONSTRUTORES ====================
+
+    public ChangeFeedEntryDTO() {
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public void setType(ChangeType type) {
+        this.type = type;
+    }
+
+    public String getTrackingCode() {
+        return trackingCode;
+    }
+
+    public void setTrackingCode(String trackingCode) {
+        this.trackingCode = trackingCode;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public EventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EventStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getEventTimestamp() {
+        return eventTimestamp;
+    }
+
+    public void setEventTimestamp(LocalDateTime eventTimestamp) {
+        this.eventTimestamp = eventTimestamp;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "ChangeFeedEntryDTO{" +
+                "seq=" + seq +
+                ", type=" + type +
+                ", trackingCode='" + trackingCode + '\'' +
+                ", eventId=" + eventId +
+                ", status=" + status +
+                '}';
+    }
+}
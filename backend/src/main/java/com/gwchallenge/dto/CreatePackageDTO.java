@@ -9,8 +9,8 @@ import javax.validation.constraints.Size;
  */
 public class CreatePackageDTO {
     
-    @NotBlank(message = "Tracking code cannot be blank")
-    @Size(min = 1, max = 50, message = "Tracking code must be between 1 and 50 characters")
+    /** Opcional com gw.tracking-code.generator.enabled (o servidor gera o código). */
+    @Size(max = 50, message = "Tracking code must be between 1 and 50 characters")
     private String trackingCode;
     
     @NotBlank(message = "Client name cannot be blank")
@@ -0,0 +1,50 @@
+package com.gwchallenge.dto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para criação de vários pacotes em uma única transação.
+ * Usado no endpoint POST /api/packages/batch
+ */
+public class CreatePackagesBatchDTO {
+
+    /** Limite por lote (os códigos viram parâmetros de um único INSERT no feed). */
+    public static final int MAX_PACKAGES = 1000;
+
+    @Valid
+    @NotEmpty(message = "Packages cannot be empty")
+    @Size(max = MAX_PACKAGES, message = "A batch can have at most " + MAX_PACKAGES + " packages")
+    private List<CreatePackageDTO> packages = new ArrayList<>();
+
+    // ==================== CONSTRUTORES ====================
+
+    public CreatePackagesBatchDTO() {
+    }
+
+    public CreatePackagesBatchDTO(List<CreatePackageDTO> packages) {
+        this.packages = packages;
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public List<CreatePackageDTO> getPackages() {
+        return packages;
+    }
+
+    public void setPackages(List<CreatePackageDTO> packages) {
+        this.packages = packages;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "CreatePackagesBatchDTO{" +
+                "packages=" + packages.size() +
+                '}';
+    }
+}
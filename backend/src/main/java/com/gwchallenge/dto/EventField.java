@@ -0,0 +1,64 @@
+package com.gwchallenge.dto;
+
+import com.gwchallenge.exception.BusinessException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Campos selecionáveis de um evento ({@code ?fields=status,eventTimestamp}).
+ *
+ * Cada campo corresponde a uma expressão JPQL: só as colunas pedidas são lidas do banco.
+ * A ordem do enum é a ordem dos campos na resposta.
+ */
+public enum EventField {
+
+    ID("id", "e.id"),
+    EVENT_TIMESTAMP("eventTimestamp", "e.eventTimestamp"),
+    STATUS("status", "e.status"),
+    DESCRIPTION("description", "e.description"),
+    TRACKING_CODE("trackingCode", "e.packageEntity.trackingCode");
+
+    private final String jsonName;
+    private final String expression;
+
+    EventField(String jsonName, String expression) {
+        this.jsonName = jsonName;
+        this.expression = expression;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /** Expressão JPQL da coluna (a FK tracking_code é lida sem JOIN com package). */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Converte a lista separada por vírgulas (nomes do JSON) em campos.
+     *
+     * @throws BusinessException se algum campo não existir ou a lista estiver vazia
+     */
+    public static Set<EventField> parse(String fields) {
+        Set<EventField> selected = EnumSet.noneOf(EventField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.jsonName.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new BusinessException("Campo '" + trimmed + "' inválido. Campos disponíveis: "
+                            + Arrays.stream(values()).map(EventField::getJsonName).collect(Collectors.joining(", ")))));
+        }
+        if (selected.isEmpty()) {
+            throw new BusinessException("Parâmetro 'fields' sem nenhum campo");
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,65 @@
+package com.gwchallenge.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO de uma página de eventos com paginação por keyset.
+ *
+ * O cliente envia o {@code nextCursor} como {@code cursor} na próxima chamada;
+ * quando {@code hasMore} é false não há mais páginas.
+ */
+public class EventPageDTO {
+
+    private List<EventResponseDTO> events = new ArrayList<>();
+    private String nextCursor; // Opaco para o cliente (null quando não há próxima página)
+    private boolean hasMore;
+
+    // ==================== CONSTRUTORES ====================
+
+    public EventPageDTO() {
+    }
+
+    public EventPageDTO(List<EventResponseDTO> events, String nextCursor, boolean hasMore) {
+        this.events = events;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public List<EventResponseDTO> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<EventResponseDTO> events) {
+        this.events = events;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "EventPageDTO{" +
+                "events=" + events +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
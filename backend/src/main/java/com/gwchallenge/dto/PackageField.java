@@ -0,0 +1,70 @@
+package com.gwchallenge.dto;
+
+import com.gwchallenge.exception.BusinessException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Campos selecionáveis de um pacote ({@code ?fields=trackingCode,latestStatus}).
+ *
+ * Cada campo corresponde a uma expressão JPQL: só as colunas pedidas são lidas do banco,
+ * e os eventos só são carregados se {@code events} for pedido. A ordem do enum é a ordem
+ * dos campos na resposta.
+ */
+public enum PackageField {
+
+    TRACKING_CODE("trackingCode", "p.trackingCode"),
+    CLIENT_NAME("clientName", "p.clientName"),
+    DELIVERY_ADDRESS("deliveryAddress", "p.deliveryAddress"),
+    /** Status do último evento (event_timestamp DESC, id DESC), via subconsulta no índice (tracking_code, event_timestamp). */
+    LATEST_STATUS("latestStatus",
+            "(SELECT e.status FROM Event e WHERE e.id = (SELECT MAX(e2.id) FROM Event e2 "
+                    + "WHERE e2.packageEntity = p AND e2.eventTimestamp = "
+                    + "(SELECT MAX(e3.eventTimestamp) FROM Event e3 WHERE e3.packageEntity = p)))"),
+    /** Eventos completos (consulta separada, só quando pedido). */
+    EVENTS("events", null);
+
+    private final String jsonName;
+    private final String expression;
+
+    PackageField(String jsonName, String expression) {
+        this.jsonName = jsonName;
+        this.expression = expression;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /** Expressão JPQL da coluna (null para {@code events}, carregado à parte). */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Converte a lista separada por vírgulas (nomes do JSON) em campos.
+     *
+     * @throws BusinessException se algum campo não existir ou a lista estiver vazia
+     */
+    public static Set<PackageField> parse(String fields) {
+        Set<PackageField> selected = EnumSet.noneOf(PackageField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.jsonName.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new BusinessException("Campo '" + trimmed + "' inválido. Campos disponíveis: "
+                            + Arrays.stream(values()).map(PackageField::getJsonName).collect(Collectors.joining(", ")))));
+        }
+        if (selected.isEmpty()) {
+            throw new BusinessException("Parâmetro 'fields' sem nenhum campo");
+        }
+        return selected;
+    }
+}
@@ -6,6 +6,10 @@ import java.util.List;
 /**
  * DTO para retornar dados completos de um pacote para o frontend.
  * Inclui lista de eventos convertidos para EventResponseDTO.
+ * 
+ * Na busca por código ({@code GET /api/packages/{trackingCode}}) {@code events} traz só os
+ * eventos mais recentes (gw.timeline.package-events-limit) e {@code totalEvents} o total do
+ * pacote; a linha do tempo completa é paginada em /api/events/package/{trackingCode}?limit=.
  */
 public class PackageResponseDTO {
     
@@ -13,6 +17,7 @@ public class PackageResponseDTO {
     private String clientName;
     private String deliveryAddress;
     private List<EventResponseDTO> events = new ArrayList<>();
+    private long totalEvents; // Total de eventos do pacote (pode ser maior que events.size())
     
     // ==================== CONSTRUTORES ====================
     
@@ -25,6 +30,16 @@ public class PackageResponseDTO {
         this.clientName = clientName;
         this.deliveryAddress = deliveryAddress;
         this.events = events;
+        this.totalEvents = events.size();
+    }
+    
+    public PackageResponseDTO(String trackingCode, String clientName, String deliveryAddress,
+                             List<EventResponseDTO> events, long totalEvents) {
+        this.trackingCode = trackingCode;
+        this.clientName = clientName;
+        this.deliveryAddress = deliveryAddress;
+        this.events = events;
+        this.totalEvents = totalEvents;
     }
     
     // ==================== GETTERS E SETTERS ====================
@@ -61,6 +76,14 @@ public class PackageResponseDTO {
         this.events = events;
     }
     
+    public long getTotalEvents() {
+        return totalEvents;
+    }
+    
+    public void setTotalEvents(long totalEvents) {
+        this.totalEvents = totalEvents;
+    }
+    
     // ==================== TOSTRING ====================
     
     @Override
@@ -70,6 +93,7 @@ public class PackageResponseDTO {
                 ", clientName='" + clientName + '\'' +
                 ", deliveryAddress='" + deliveryAddress + '\'' +
                 ", events=" + events +
+                ", totalEvents=" + totalEvents +
                 '}';
     }
 }
\ No newline at end of file
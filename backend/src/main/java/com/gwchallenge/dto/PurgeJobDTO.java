@@ -0,0 +1,100 @@
+package com.gwchallenge.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO com o andamento de um expurgo em lotes.
+ * Retornado por POST /api/packages/purge e GET /api/packages/purge/{jobId}
+ */
+public class PurgeJobDTO {
+
+    /** Estados possíveis de um expurgo. */
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private String jobId;
+    private volatile State state = State.QUEUED;
+    private volatile long deletedPackages;
+    private volatile int chunks;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    // ==================== CONSTRUTORES ====================
+
+    public PurgeJobDTO() {
+    }
+
+    public PurgeJobDTO(String jobId) {
+        this.jobId = jobId;
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public long getDeletedPackages() {
+        return deletedPackages;
+    }
+
+    public void setDeletedPackages(long deletedPackages) {
+        this.deletedPackages = deletedPackages;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "PurgeJobDTO{" +
+                "jobId='" + jobId + '\'' +
+                ", state=" + state +
+                ", deletedPackages=" + deletedPackages +
+                ", chunks=" + chunks +
+                '}';
+    }
+}
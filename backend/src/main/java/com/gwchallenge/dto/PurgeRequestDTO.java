@@ -0,0 +1,67 @@
+package com.gwchallenge.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.PastOrPresent;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para solicitar um expurgo em lotes de pacotes (e seus eventos).
+ * Usado no endpoint POST /api/packages/purge
+ *
+ * Informe um dos critérios:
+ * - deliveredBefore: pacotes entregues antes desta data (e sem eventos posteriores)
+ * - trackingCodes: lista explícita de códigos
+ */
+public class PurgeRequestDTO {
+
+    /** Limite de códigos por pedido (a lista fica em memória até o fim do expurgo). */
+    public static final int MAX_TRACKING_CODES = 100_000;
+
+    @PastOrPresent(message = "deliveredBefore cannot be in the future")
+    private LocalDateTime deliveredBefore;
+
+    @Size(max = MAX_TRACKING_CODES, message = "A purge can have at most " + MAX_TRACKING_CODES + " tracking codes")
+    private List<@NotBlank(message = "Tracking code cannot be blank")
+            @Size(max = 50, message = "Tracking code must be between 1 and 50 characters") String> trackingCodes = new ArrayList<>();
+
+    // ==================== CONSTRUTORES ====================
+
+    public PurgeRequestDTO() {
+    }
+
+    public PurgeRequestDTO(LocalDateTime deliveredBefore, List<String> trackingCodes) {
+        this.deliveredBefore = deliveredBefore;
+        this.trackingCodes = trackingCodes;
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public LocalDateTime getDeliveredBefore() {
+        return deliveredBefore;
+    }
+
+    public void setDeliveredBefore(LocalDateTime deliveredBefore) {
+        this.deliveredBefore = deliveredBefore;
+    }
+
+    public List<String> getTrackingCodes() {
+        return trackingCodes;
+    }
+
+    public void setTrackingCodes(List<String> trackingCodes) {
+        this.trackingCodes = trackingCodes;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "PurgeRequestDTO{" +
+                "deliveredBefore=" + deliveredBefore +
+                ", trackingCodes=" + (trackingCodes == null ? 0 : trackingCodes.size()) + " códigos" +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package com.gwchallenge.dto;
+
+import com.gwchallenge.model.EventStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de um pacote parado além do SLA (GET /api/packages/stuck).
+ */
+public class StuckPackageDTO {
+
+    private String trackingCode;
+    private EventStatus status;          // Status do último evento (IN_TRANSIT ou OUT_FOR_DELIVERY)
+    private LocalDateTime lastEventAt;   // Timestamp do último evento
+    private LocalDateTime slaDeadline;   // lastEventAt + SLA do status
+
+    // ==================== CONSTRUTORES ====================
+
+    public StuckPackageDTO() {
+    }
+
+    public StuckPackageDTO(String trackingCode, EventStatus status,
+                           LocalDateTime lastEventAt, LocalDateTime slaDeadline) {
+        this.trackingCode = trackingCode;
+        this.status = status;
+        this.lastEventAt = lastEventAt;
+        this.slaDeadline = slaDeadline;
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public String getTrackingCode() {
+        return trackingCode;
+    }
+
+    public void setTrackingCode(String trackingCode) {
+        this.trackingCode = trackingCode;
+    }
+
+    public EventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EventStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getLastEventAt() {
+        return lastEventAt;
+    }
+
+    public void setLastEventAt(LocalDateTime lastEventAt) {
+        this.lastEventAt = lastEventAt;
+    }
+
+    public LocalDateTime getSlaDeadline() {
+        return slaDeadline;
+    }
+
+    public void setSlaDeadline(LocalDateTime slaDeadline) {
+        this.slaDeadline = slaDeadline;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "StuckPackageDTO{" +
+                "trackingCode='" + trackingCode + '\'' +
+                ", status=" + status +
+                ", lastEventAt=" + lastEventAt +
+                ", slaDeadline=" + slaDeadline +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package com.gwchallenge.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO de resposta da sincronização incremental da timeline.
+ * Usado em GET /api/events/package/{trackingCode}?sinceId=... ou ?since=...
+ *
+ * O cliente guarda o {@code cursor} e o envia como {@code sinceId} na próxima chamada,
+ * recebendo apenas os eventos registrados depois dele.
+ */
+public class TimelineSyncDTO {
+
+    private String trackingCode;
+    private List<EventResponseDTO> events = new ArrayList<>(); // Eventos novos, em ordem crescente de ID
+    private Long cursor;      // Maior ID já entregue (usar como sinceId na próxima chamada)
+    private boolean hasMore;  // true se ainda há eventos além do limite desta resposta
+
+    // ==================== CONSTRUTORES ====================
+
+    public TimelineSyncDTO() {
+    }
+
+    public TimelineSyncDTO(String trackingCode, List<EventResponseDTO> events, Long cursor, boolean hasMore) {
+        this.trackingCode = trackingCode;
+        this.events = events;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public String getTrackingCode() {
+        return trackingCode;
+    }
+
+    public void setTrackingCode(String trackingCode) {
+        this.trackingCode = trackingCode;
+    }
+
+    public List<EventResponseDTO> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<EventResponseDTO> events) {
+        this.events = events;
+    }
+
+    public Long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(Long cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "TimelineSyncDTO{" +
+                "trackingCode='" + trackingCode + '\'' +
+                ", events=" + events +
+                ", cursor=" + cursor +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
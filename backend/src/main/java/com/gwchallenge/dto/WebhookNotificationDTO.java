@@ -0,0 +1,90 @@
+package com.gwchallenge.dto;
+
+import com.gwchallenge.model.EventStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de uma notificação enviada aos parceiros via webhook.
+ * As notificações de um mesmo endpoint são agrupadas em um único POST (array JSON).
+ *
+ * O {@code id} é estável entre tentativas: como a entrega é "at-least-once",
+ * o parceiro deve usá-lo para descartar duplicatas.
+ */
+public class WebhookNotificationDTO {
+
+    private Long id;
+    private String trackingCode;
+    private Long eventId;
+    private EventStatus status;
+    private LocalDateTime eventTimestamp;
+
+    // ==================== CONSTRUTORES ====================
+
+    public WebhookNotificationDTO() {
+    }
+
+    public WebhookNotificationDTO(Long id, String trackingCode, Long eventId,
+                                  EventStatus status, LocalDateTime eventTimestamp) {
+        this.id = id;
+        this.trackingCode = trackingCode;
+        this.eventId = eventId;
+        this.status = status;
+        this.eventTimestamp = eventTimestamp;
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTrackingCode() {
+        return trackingCode;
+    }
+
+    public void setTrackingCode(String trackingCode) {
+        this.trackingCode = trackingCode;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public EventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EventStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getEventTimestamp() {
+        return eventTimestamp;
+    }
+
+    public void setEventTimestamp(LocalDateTime eventTimestamp) {
+        this.eventTimestamp = eventTimestamp;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "WebhookNotificationDTO{" +
+                "id=" + id +
+                ", trackingCode='" + trackingCode + '\'' +
+                ", eventId=" + eventId +
+                ", status=" + status +
+                ", eventTimestamp=" + eventTimestamp +
+                '}';
+    }
+}
@@ -5,11 +5,13 @@ package com.gwchallenge.exception;
  *
  * Exceção personalizada para representar erros de regra de negócio.
  * Exemplo: tentativa de criar um pacote com código duplicado.
+ *
+ * Sem stack trace, como ResourceNotFoundException: a mensagem já identifica a regra violada.
  */
 public class BusinessException extends RuntimeException {
 
     // Construtor que recebe uma mensagem de erro
     public BusinessException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,16 @@
+package com.gwchallenge.exception;
+
+/**
+ * ConflictException
+ *
+ * Exceção lançada quando a operação conflita com o estado atual do recurso (erro 409).
+ * Exemplo: criação de um pacote com código de rastreio já existente.
+ *
+ * Sem stack trace, como as demais exceções de domínio.
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,61 @@
+package com.gwchallenge.exception;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Leitura dos erros de integridade do PostgreSQL na cadeia de causas de uma exceção
+ * (ex: DataIntegrityViolationException → ConstraintViolationException → PSQLException).
+ *
+ * Usado para transformar violações de constraint em erros de domínio
+ * (chave duplicada → 409) sem consultar o banco antes da escrita.
+ */
+public final class DataIntegrityErrors {
+
+    /** SQLSTATE unique_violation. */
+    public static final String UNIQUE_VIOLATION = "23505";
+
+    /** SQLSTATE foreign_key_violation. */
+    public static final String FOREIGN_KEY_VIOLATION = "23503";
+
+    /** Detalhe do PostgreSQL: "Key (tracking_code)=(GW123) already exists." */
+    private static final Pattern KEY_DETAIL = Pattern.compile("Key \\((.+?)\\)=\\((.*?)\\)");
+
+    private DataIntegrityErrors() {
+    }
+
+    /**
+     * Indica se algum SQLException da cadeia (inclusive os encadeados de um batch) tem o SQLSTATE.
+     */
+    public static boolean hasSqlState(Throwable ex, String sqlState) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                for (SQLException sql = (SQLException) cause; sql != null; sql = sql.getNextException()) {
+                    if (sqlState.equals(sql.getSQLState())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Valor da chave que violou a constraint, se o PostgreSQL o informou.
+     */
+    public static Optional<String> keyValue(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                for (SQLException sql = (SQLException) cause; sql != null; sql = sql.getNextException()) {
+                    Matcher matcher = KEY_DETAIL.matcher(String.valueOf(sql.getMessage()));
+                    if (matcher.find()) {
+                        return Optional.of(matcher.group(2));
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
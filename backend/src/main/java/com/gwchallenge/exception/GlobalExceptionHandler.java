@@ -1,23 +1,22 @@
 package com.gwchallenge.exception;
 
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
 
 /**
  * GlobalExceptionHandler
  *
  * Classe responsável por interceptar exceções lançadas na aplicação
- * e converter em respostas HTTP padronizadas (em formato JSON).
+ * e converter em respostas HTTP padronizadas (problem+json, RFC 7807):
+ * {"type":"urn:gw:problem:...","title":"...","status":404,"detail":"...","instance":"/api/..."}
  *
  * O uso de @RestControllerAdvice permite capturar erros globalmente
- * em qualquer controlador REST da aplicação.
+ * em qualquer controlador REST da aplicação. Os corpos são montados pelo
+ * ProblemJsonWriter (prefixo pré-serializado por tipo de erro).
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -26,53 +25,43 @@ public class GlobalExceptionHandler {
      * Trata exceções de recurso não encontrado (erro 404).
      */
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleResourceNotFound(ResourceNotFoundException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.NOT_FOUND.value());
-        body.put("error", "Resource Not Found");
-        body.put("message", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    public ResponseEntity<byte[]> handleResourceNotFound(ResourceNotFoundException ex,
+                                                         HttpServletRequest request) {
+        return ProblemJsonWriter.toResponse(ProblemType.RESOURCE_NOT_FOUND, ex.getMessage(), request.getRequestURI());
     }
 
     /**
      * Trata exceções de regra de negócio (erro 400).
      */
     @ExceptionHandler(BusinessException.class)
-    public ResponseEntity<Map<String, Object>> handleBusinessException(BusinessException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", "Business Rule Violation");
-        body.put("message", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    public ResponseEntity<byte[]> handleBusinessException(BusinessException ex, HttpServletRequest request) {
+        return ProblemJsonWriter.toResponse(ProblemType.BUSINESS_RULE, ex.getMessage(), request.getRequestURI());
+    }
+
+    /**
+     * Trata conflitos com o estado atual, como código de rastreio duplicado (erro 409).
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<byte[]> handleConflict(ConflictException ex, HttpServletRequest request) {
+        return ProblemJsonWriter.toResponse(ProblemType.CONFLICT, ex.getMessage(), request.getRequestURI());
     }
 
     /**
      * Trata erros de validação de campos (por exemplo, uso de @Valid).
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationException(MethodArgumentNotValidException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", "Validation Error");
+    public ResponseEntity<byte[]> handleValidationException(MethodArgumentNotValidException ex,
+                                                            HttpServletRequest request) {
         // Extrai a primeira mensagem de erro de validação
         String message = ex.getBindingResult().getAllErrors().get(0).getDefaultMessage();
-        body.put("message", message);
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+        return ProblemJsonWriter.toResponse(ProblemType.VALIDATION, message, request.getRequestURI());
     }
 
     /**
      * Trata outros erros genéricos não capturados (erro 500).
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        body.put("error", "Internal Server Error");
-        body.put("message", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
+    public ResponseEntity<byte[]> handleGenericException(Exception ex, HttpServletRequest request) {
+        return ProblemJsonWriter.toResponse(ProblemType.INTERNAL, ex.getMessage(), request.getRequestURI());
     }
 }
@@ -0,0 +1,89 @@
+package com.gwchallenge.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializador dos corpos de erro problem+json.
+ *
+ * Monta o JSON direto em um único byte[]: prefixo pré-serializado do ProblemType
+ * + detail e instance escapados. Sem Map, sem reflexão do ObjectMapper e sem
+ * LocalDateTime.now() por erro (o header Date da resposta já informa o horário).
+ *
+ * Usado pelo GlobalExceptionHandler e por filtros que respondem antes dos
+ * controllers (RateLimitFilter), para que todos os erros tenham o mesmo formato.
+ */
+public final class ProblemJsonWriter {
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INSTANCE = ",\"instance\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte QUOTE = '"';
+    private static final byte END = '}';
+
+    private ProblemJsonWriter() {
+    }
+
+    /**
+     * Resposta para um @ExceptionHandler.
+     */
+    public static ResponseEntity<byte[]> toResponse(ProblemType problem, String detail, String instance) {
+        return ResponseEntity.status(problem.getStatus())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(serialize(problem, detail, instance));
+    }
+
+    /**
+     * Escreve o erro direto na resposta (filtros).
+     */
+    public static void write(HttpServletResponse response, ProblemType problem, String detail,
+                             String instance) throws IOException {
+        byte[] body = serialize(problem, detail, instance);
+        response.setStatus(problem.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * {"type":...,"title":...,"status":...,"detail":"...","instance":"..."}
+     */
+    public static byte[] serialize(ProblemType problem, String detail, String instance) {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        byte[] prefix = problem.prefix();
+        byte[] detailBytes = detail != null ? encoder.quoteAsUTF8(detail) : null;
+        byte[] instanceBytes = instance != null ? encoder.quoteAsUTF8(instance) : null;
+
+        int length = prefix.length + quotedLength(detailBytes) + INSTANCE.length + quotedLength(instanceBytes) + 1;
+        byte[] body = new byte[length];
+        int pos = copy(prefix, body, 0);
+        pos = copyQuoted(detailBytes, body, pos);
+        pos = copy(INSTANCE, body, pos);
+        pos = copyQuoted(instanceBytes, body, pos);
+        body[pos] = END;
+        return body;
+    }
+
+    private static int quotedLength(byte[] value) {
+        return value != null ? value.length + 2 : NULL.length;
+    }
+
+    private static int copyQuoted(byte[] value, byte[] target, int pos) {
+        if (value == null) {
+            return copy(NULL, target, pos);
+        }
+        target[pos++] = QUOTE;
+        pos = copy(value, target, pos);
+        target[pos++] = QUOTE;
+        return pos;
+    }
+
+    private static int copy(byte[] source, byte[] target, int pos) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+}
@@ -0,0 +1,53 @@
+package com.gwchallenge.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tipos de erro da API no formato problem+json (RFC 7807).
+ *
+ * O início do corpo de cada tipo ({"type":...,"title":...,"status":...,"detail":)
+ * é serializado uma única vez, na carga da classe; por resposta só são escritos
+ * o detail e o instance (ver ProblemJsonWriter).
+ */
+public enum ProblemType {
+
+    RESOURCE_NOT_FOUND(HttpStatus.NOT_FOUND, "resource-not-found", "Resource Not Found"),
+    BUSINESS_RULE(HttpStatus.BAD_REQUEST, "business-rule", "Business Rule Violation"),
+    VALIDATION(HttpStatus.BAD_REQUEST, "validation", "Validation Error"),
+    CONFLICT(HttpStatus.CONFLICT, "conflict", "Conflict"),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS, "rate-limited", "Too Many Requests"),
+    OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE, "overloaded", "Service Unavailable"),
+    INTERNAL(HttpStatus.INTERNAL_SERVER_ERROR, "internal", "Internal Server Error");
+
+    private final HttpStatus status;
+    private final String type;
+    private final String title;
+    private final byte[] prefix;
+
+    ProblemType(HttpStatus status, String slug, String title) {
+        this.status = status;
+        this.type = "urn:gw:problem:" + slug;
+        this.title = title;
+        // Valores fixos e sem caracteres que precisem de escape
+        this.prefix = ("{\"type\":\"" + type + "\",\"title\":\"" + title + "\",\"status\":" + status.value()
+                + ",\"detail\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    byte[] prefix() {
+        return prefix;
+    }
+}
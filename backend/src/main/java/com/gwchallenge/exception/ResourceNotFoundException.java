@@ -4,11 +4,15 @@ package com.gwchallenge.exception;
  * ResourceNotFoundException
  *
  * Exceção lançada quando um recurso (pacote, evento, etc.) não é encontrado no sistema.
+ *
+ * Sem stack trace (writableStackTrace=false): é um resultado esperado, não um defeito,
+ * e 404s são uma parcela grande do tráfego. Capturar a pilha a cada lançamento era
+ * o maior custo do caminho de erro.
  */
 public class ResourceNotFoundException extends RuntimeException {
 
     // Construtor simples com a mensagem do erro
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,46 @@
+package com.gwchallenge.export;
+
+import com.gwchallenge.exception.BusinessException;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formatos de GET /api/export/packages.
+ */
+public enum ExportFormat {
+
+    /** Um pacote (com eventos) por linha, no formato de PackageResponseDTO. */
+    NDJSON("ndjson", new MediaType("application", "x-ndjson")),
+
+    /** Uma linha por evento (ver PackageCsvWriter). */
+    CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    ExportFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @throws BusinessException se o formato não for ndjson nem csv
+     */
+    public static ExportFormat parse(String format) {
+        for (ExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new BusinessException("Formato '" + format + "' inválido. Formatos disponíveis: ndjson, csv");
+    }
+}
@@ -0,0 +1,87 @@
+package com.gwchallenge.export;
+
+import com.gwchallenge.model.EventStatus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Escreve pacotes em CSV (RFC 4180): uma linha por evento, com os dados do pacote
+ * repetidos; pacote sem eventos gera uma linha com as colunas de evento vazias.
+ *
+ * Colunas: trackingCode, clientName, deliveryAddress, eventId, eventTimestamp, status, description
+ * (timestamps e status no mesmo formato do JSON). O Writer é descarregado (flush) a cada
+ * {@code flushEvery} pacotes.
+ */
+public class PackageCsvWriter implements PackageRowWriter {
+
+    private static final String HEADER =
+            "trackingCode,clientName,deliveryAddress,eventId,eventTimestamp,status,description\r\n";
+    private static final String NO_EVENT = ",,,,\r\n";
+
+    private final Writer out;
+    private final int flushEvery;
+
+    /** Colunas do pacote atual já escapadas (repetidas em cada evento). */
+    private String packageColumns;
+    private boolean hasEvents;
+    private long packages;
+
+    public PackageCsvWriter(Writer out, int flushEvery) throws IOException {
+        this.out = out;
+        this.flushEvery = flushEvery;
+        out.write(HEADER);
+    }
+
+    @Override
+    public void startPackage(String trackingCode, String clientName, String deliveryAddress) throws IOException {
+        packageColumns = escape(trackingCode) + ',' + escape(clientName) + ',' + escape(deliveryAddress);
+        hasEvents = false;
+    }
+
+    @Override
+    public void event(long id, LocalDateTime eventTimestamp, EventStatus status, String description)
+            throws IOException {
+        hasEvents = true;
+        out.write(packageColumns);
+        out.write(',');
+        out.write(Long.toString(id));
+        out.write(',');
+        out.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(eventTimestamp));
+        out.write(',');
+        out.write(status.name());
+        out.write(',');
+        out.write(escape(description));
+        out.write("\r\n");
+    }
+
+    @Override
+    public void endPackage(long totalEvents) throws IOException {
+        if (!hasEvents) {
+            out.write(packageColumns);
+            out.write(NO_EVENT);
+        }
+        if (++packages % flushEvery == 0) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Campo entre aspas (com aspas internas duplicadas) se tiver vírgula, aspas ou quebra de linha.
+     * null vira campo vazio.
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
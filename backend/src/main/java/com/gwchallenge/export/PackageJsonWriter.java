@@ -0,0 +1,119 @@
+package com.gwchallenge.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.gwchallenge.model.EventStatus;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Escreve pacotes em um JsonGenerator no mesmo formato da serialização padrão de
+ * PackageResponseDTO / EventResponseDTO:
+ * - Campos na ordem de declaração dos DTOs
+ * - eventTimestamp em ISO_LOCAL_DATE_TIME (como o LocalDateTimeSerializer do Jackson)
+ * - status pelo nome do enum; description null como null
+ *
+ * Nomes de campos e status são pré-serializados (SerializedString).
+ * Em modo NDJSON cada pacote é um objeto seguido de '\n', e o gerador é descarregado
+ * (flush) a cada {@code flushEvery} pacotes.
+ */
+public class PackageJsonWriter implements PackageRowWriter {
+
+    private static final SerializedString TRACKING_CODE = new SerializedString("trackingCode");
+    private static final SerializedString CLIENT_NAME = new SerializedString("clientName");
+    private static final SerializedString DELIVERY_ADDRESS = new SerializedString("deliveryAddress");
+    private static final SerializedString EVENTS = new SerializedString("events");
+    private static final SerializedString TOTAL_EVENTS = new SerializedString("totalEvents");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString EVENT_TIMESTAMP = new SerializedString("eventTimestamp");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+
+    /** Nome de cada status, indexado pelo ordinal. */
+    private static final SerializedString[] STATUS_NAMES = statusNames();
+
+    private final JsonGenerator json;
+    private final boolean lineDelimited;
+    private final int flushEvery;
+
+    /** Código do pacote atual, repetido em cada evento. */
+    private SerializedString trackingCode;
+    private long packages;
+
+    /**
+     * Um único objeto JSON (resposta de GET /api/packages/{trackingCode}).
+     */
+    public static PackageJsonWriter single(JsonGenerator json) {
+        return new PackageJsonWriter(json, false, 0);
+    }
+
+    /**
+     * Um objeto por linha (NDJSON), com flush a cada {@code flushEvery} pacotes.
+     */
+    public static PackageJsonWriter lineDelimited(JsonGenerator json, int flushEvery) {
+        json.setRootValueSeparator(null); // O separador é o '\n' escrito em endPackage
+        return new PackageJsonWriter(json, true, flushEvery);
+    }
+
+    private PackageJsonWriter(JsonGenerator json, boolean lineDelimited, int flushEvery) {
+        this.json = json;
+        this.lineDelimited = lineDelimited;
+        this.flushEvery = flushEvery;
+    }
+
+    @Override
+    public void startPackage(String trackingCode, String clientName, String deliveryAddress) throws IOException {
+        this.trackingCode = new SerializedString(trackingCode);
+        json.writeStartObject();
+        json.writeFieldName(TRACKING_CODE);
+        json.writeString(this.trackingCode);
+        json.writeFieldName(CLIENT_NAME);
+        json.writeString(clientName);
+        json.writeFieldName(DELIVERY_ADDRESS);
+        json.writeString(deliveryAddress);
+        json.writeFieldName(EVENTS);
+        json.writeStartArray();
+    }
+
+    @Override
+    public void event(long id, LocalDateTime eventTimestamp, EventStatus status, String description)
+            throws IOException {
+        json.writeStartObject();
+        json.writeFieldName(ID);
+        json.writeNumber(id);
+        json.writeFieldName(EVENT_TIMESTAMP);
+        json.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(eventTimestamp));
+        json.writeFieldName(STATUS);
+        json.writeString(STATUS_NAMES[status.ordinal()]);
+        json.writeFieldName(DESCRIPTION);
+        json.writeString(description); // null → null
+        json.writeFieldName(TRACKING_CODE);
+        json.writeString(trackingCode);
+        json.writeEndObject();
+    }
+
+    @Override
+    public void endPackage(long totalEvents) throws IOException {
+        json.writeEndArray();
+        json.writeFieldName(TOTAL_EVENTS);
+        json.writeNumber(totalEvents);
+        json.writeEndObject();
+        if (lineDelimited) {
+            json.writeRaw('\n');
+            if (++packages % flushEvery == 0) {
+                json.flush();
+            }
+        }
+    }
+
+    private static SerializedString[] statusNames() {
+        EventStatus[] statuses = EventStatus.values();
+        SerializedString[] names = new SerializedString[statuses.length];
+        for (EventStatus status : statuses) {
+            names[status.ordinal()] = new SerializedString(status.name());
+        }
+        return names;
+    }
+}
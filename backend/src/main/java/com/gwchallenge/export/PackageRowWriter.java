@@ -0,0 +1,25 @@
+package com.gwchallenge.export;
+
+import com.gwchallenge.model.EventStatus;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Destino das linhas lidas por PackageJsonRepository (pacote seguido dos seus eventos),
+ * sem montar entidades nem DTOs.
+ *
+ * Para cada pacote: startPackage, zero ou mais event, endPackage.
+ */
+public interface PackageRowWriter {
+
+    void startPackage(String trackingCode, String clientName, String deliveryAddress) throws IOException;
+
+    void event(long id, LocalDateTime eventTimestamp, EventStatus status, String description) throws IOException;
+
+    /**
+     * @param totalEvents total de eventos do pacote (maior que os entregues quando a leitura
+     *                    é limitada aos mais recentes)
+     */
+    void endPackage(long totalEvents) throws IOException;
+}
@@ -0,0 +1,267 @@
+package com.gwchallenge.lookup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Filtro de cuckoo para testes de pertinência com falsos positivos e sem falsos negativos.
+ *
+ * Diferente de um filtro de Bloom, permite remoção: cada item ocupa uma impressão digital
+ * (fingerprint) de até 16 bits em um de dois buckets de 4 posições. Os dois buckets
+ * possíveis são derivados um do outro (i2 = i1 ^ hash(fingerprint)), então um item pode
+ * ser realocado sem conhecer a chave original.
+ *
+ * - mightContain == false: o item com certeza não está no conjunto
+ * - mightContain == true: o item provavelmente está (taxa de falso positivo ≈ 8 / 2^bits)
+ *
+ * Remoção só pode ser feita para itens efetivamente inseridos; remover algo que nunca
+ * foi inserido pode apagar a impressão digital de outro item (falso negativo).
+ *
+ * Leituras usam leitura otimista do StampedLock (sem bloqueio quando não há escrita
+ * concorrente); inserções e remoções usam o lock de escrita.
+ */
+public class CuckooFilter {
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int MAX_KICKS = 500;
+    private static final double MAX_LOAD_FACTOR = 0.95;
+
+    private final short[] table;
+    private final int bucketMask;
+    private final int fingerprintMask;
+    private final StampedLock lock = new StampedLock();
+
+    private long size;
+
+    // Item desalojado quando a tabela encheu (mantido para não gerar falso negativo)
+    private boolean victimUsed;
+    private int victimIndex;
+    private short victimFingerprint;
+
+    private CuckooFilter(int buckets, int fingerprintBits) {
+        this.table = new short[buckets * BUCKET_SIZE];
+        this.bucketMask = buckets - 1;
+        this.fingerprintMask = (1 << fingerprintBits) - 1;
+    }
+
+    /**
+     * Cria um filtro dimensionado para a capacidade e a taxa de falso positivo desejadas.
+     *
+     * @param capacity quantidade máxima esperada de itens
+     * @param falsePositiveRate taxa de falso positivo desejada (limitada a ~0,012% pelos 16 bits)
+     * @return filtro vazio
+     */
+    public static CuckooFilter create(long capacity, double falsePositiveRate) {
+        if (capacity < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("capacity must be positive and falsePositiveRate in (0, 1)");
+        }
+        // ε ≈ 2b / 2^f  →  f = log2(2b / ε)
+        int bits = (int) Math.ceil(Math.log(2.0 * BUCKET_SIZE / falsePositiveRate) / Math.log(2));
+        bits = Math.max(4, Math.min(16, bits));
+
+        long minBuckets = (long) Math.ceil(capacity / (BUCKET_SIZE * MAX_LOAD_FACTOR));
+        long buckets = Long.highestOneBit(Math.max(1, minBuckets - 1)) << 1;
+        if (buckets * BUCKET_SIZE > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("capacity too large: " + capacity);
+        }
+        return new CuckooFilter((int) buckets, bits);
+    }
+
+    /**
+     * @return false se o item com certeza não foi inserido
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        short fingerprint = fingerprint(hash);
+        int i1 = index(hash);
+        int i2 = altIndex(i1, fingerprint);
+
+        long stamp = lock.tryOptimisticRead();
+        boolean found = contains(i1, i2, fingerprint);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = contains(i1, i2, fingerprint);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Insere um item.
+     *
+     * @return false se o filtro encheu: o item pode não estar representado, então o filtro
+     *         deixa de ser confiável e deve ser recriado com mais capacidade
+     */
+    public boolean add(String key) {
+        long hash = hash(key);
+        short fingerprint = fingerprint(hash);
+        int i1 = index(hash);
+        int i2 = altIndex(i1, fingerprint);
+
+        long stamp = lock.writeLock();
+        try {
+            if (victimUsed) {
+                return false;
+            }
+            size++;
+            if (insertInto(i1, fingerprint) || insertInto(i2, fingerprint)) {
+                return true;
+            }
+
+            // Os dois buckets estão cheios: desaloja itens aleatórios (cuckoo)
+            int index = ThreadLocalRandom.current().nextBoolean() ? i1 : i2;
+            short current = fingerprint;
+            for (int kick = 0; kick < MAX_KICKS; kick++) {
+                int slot = index * BUCKET_SIZE + ThreadLocalRandom.current().nextInt(BUCKET_SIZE);
+                short evicted = table[slot];
+                table[slot] = current;
+                current = evicted;
+                index = altIndex(index, current);
+                if (insertInto(index, current)) {
+                    return true;
+                }
+            }
+
+            victimUsed = true;
+            victimIndex = index;
+            victimFingerprint = current;
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove uma ocorrência de um item previamente inserido.
+     *
+     * @return true se uma impressão digital correspondente foi removida
+     */
+    public boolean remove(String key) {
+        long hash = hash(key);
+        short fingerprint = fingerprint(hash);
+        int i1 = index(hash);
+        int i2 = altIndex(i1, fingerprint);
+
+        long stamp = lock.writeLock();
+        try {
+            if (deleteFrom(i1, fingerprint) || deleteFrom(i2, fingerprint)) {
+                size--;
+                // Abriu espaço: tenta recolocar o item desalojado
+                if (victimUsed && (insertInto(victimIndex, victimFingerprint)
+                        || insertInto(altIndex(victimIndex, victimFingerprint), victimFingerprint))) {
+                    victimUsed = false;
+                }
+                return true;
+            }
+            if (victimUsed && victimFingerprint == fingerprint
+                    && (victimIndex == i1 || victimIndex == i2)) {
+                victimUsed = false;
+                size--;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public long size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Indica se uma inserção já falhou (o filtro precisa ser recriado maior). */
+    public boolean isFull() {
+        long stamp = lock.readLock();
+        try {
+            return victimUsed;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long capacity() {
+        return (long) (table.length * MAX_LOAD_FACTOR);
+    }
+
+    public long memoryBytes() {
+        return table.length * 2L;
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private boolean contains(int i1, int i2, short fingerprint) {
+        int b1 = i1 * BUCKET_SIZE;
+        int b2 = i2 * BUCKET_SIZE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            if (table[b1 + i] == fingerprint || table[b2 + i] == fingerprint) {
+                return true;
+            }
+        }
+        return victimUsed && victimFingerprint == fingerprint && (victimIndex == i1 || victimIndex == i2);
+    }
+
+    private boolean insertInto(int bucket, short fingerprint) {
+        int base = bucket * BUCKET_SIZE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            if (table[base + i] == 0) {
+                table[base + i] = fingerprint;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean deleteFrom(int bucket, short fingerprint) {
+        int base = bucket * BUCKET_SIZE;
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            if (table[base + i] == fingerprint) {
+                table[base + i] = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int index(long hash) {
+        return (int) hash & bucketMask;
+    }
+
+    /** Bucket alternativo: depende só do bucket atual e da impressão digital. */
+    private int altIndex(int index, short fingerprint) {
+        return (index ^ (int) mix(fingerprint & 0xFFFF)) & bucketMask;
+    }
+
+    /** Impressão digital dos 32 bits altos do hash; 0 é reservado para "posição vazia". */
+    private short fingerprint(long hash) {
+        int fingerprint = (int) (hash >>> 32) & fingerprintMask;
+        return (short) (fingerprint == 0 ? 1 : fingerprint);
+    }
+
+    /** FNV-1a 64 bits seguido do finalizador do MurmurHash3. */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,90 @@
+package com.gwchallenge.lookup;
+
+/**
+ * Formato dos códigos de rastreio gerados pelo servidor.
+ *
+ * {@code GW} + 10 caracteres em base32 Crockford (valor de 50 bits, com zeros à esquerda)
+ * + 1 dígito verificador, por exemplo {@code GW00000000Z8H}:
+ * - Valores crescentes geram códigos crescentes (mesmo tamanho, alfabeto em ordem ASCII),
+ *   então novos pacotes entram no fim do índice da chave primária
+ * - O alfabeto não tem I, L, O nem U (evita confusão com 1 e 0)
+ * - Dígito verificador Luhn mod 32: detecta qualquer caractere trocado e a maioria das
+ *   transposições de caracteres vizinhos, sem consultar o banco
+ */
+public final class TrackingCodeFormat {
+
+    public static final String PREFIX = "GW";
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int BASE = 32;
+    private static final int BODY_LENGTH = 10;
+
+    /** Tamanho total: prefixo + corpo + dígito verificador. */
+    public static final int LENGTH = PREFIX.length() + BODY_LENGTH + 1;
+
+    /** Maior valor representável no corpo (2^50 - 1). */
+    public static final long MAX_VALUE = (1L << (5 * BODY_LENGTH)) - 1;
+
+    private TrackingCodeFormat() {
+    }
+
+    /**
+     * Codifica um valor da sequence como código de rastreio.
+     */
+    public static String encode(long value) {
+        if (value < 0 || value > MAX_VALUE) {
+            throw new IllegalArgumentException("value out of range: " + value);
+        }
+        char[] code = new char[LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), code, 0);
+        for (int i = LENGTH - 2; i >= PREFIX.length(); i--) {
+            code[i] = ALPHABET.charAt((int) (value & (BASE - 1)));
+            value >>>= 5;
+        }
+        code[LENGTH - 1] = ALPHABET.charAt(checkDigit(code, LENGTH - 1));
+        return new String(code);
+    }
+
+    /**
+     * Indica se o código tem o formato dos códigos gerados (prefixo, tamanho e alfabeto),
+     * independentemente do dígito verificador.
+     */
+    public static boolean isReserved(String code) {
+        if (code == null || code.length() != LENGTH || !code.startsWith(PREFIX)) {
+            return false;
+        }
+        for (int i = PREFIX.length(); i < LENGTH; i++) {
+            if (ALPHABET.indexOf(code.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica se o código tem o formato dos códigos gerados e o dígito verificador confere.
+     */
+    public static boolean isValid(String code) {
+        if (!isReserved(code)) {
+            return false;
+        }
+        char[] chars = code.toCharArray();
+        return ALPHABET.charAt(checkDigit(chars, LENGTH - 1)) == chars[LENGTH - 1];
+    }
+
+    // ==================== AUXILIARES ====================
+
+    /**
+     * Luhn mod N sobre o corpo (posições PREFIX.length() até end - 1).
+     */
+    private static int checkDigit(char[] code, int end) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = end - 1; i >= PREFIX.length(); i--) {
+            int addend = factor * ALPHABET.indexOf(code[i]);
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / BASE + addend % BASE;
+        }
+        return (BASE - sum % BASE) % BASE;
+    }
+}
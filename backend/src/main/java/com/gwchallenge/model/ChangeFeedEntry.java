@@ -0,0 +1,150 @@
+package com.gwchallenge.model;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidade JPA que representa uma linha do feed de alterações (tabela change_feed).
+ *
+ * O feed é append-only: cada criação ou remoção de pacote/evento gera uma nova linha
+ * com {@code seq} crescente. Consumidores guardam o seq da última alteração lida e pedem
+ * apenas o que veio depois dela. Remoções geram tombstones, já que a linha original deixa de existir.
+ *
+ * A coluna {@code txid} (transação que gravou a linha, DEFAULT pg_current_xact_id()) define
+ * a ordem de entrega e a marca d'água nas consultas nativas do feed (migration 010). É
+ * mapeada somente leitura, para que o ddl-auto também a crie (com o índice de leitura) em
+ * bancos montados sem as migrations; o valor é sempre atribuído pelo banco.
+ */
+@Entity
+@Table(name = "change_feed", indexes = {
+        @Index(name = "idx_change_feed_txid_seq", columnList = "txid, seq")
+})
+public class ChangeFeedEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(name = "change_type", length = 30, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+
+    @Column(name = "tracking_code", length = 50, nullable = false)
+    private String trackingCode;
+
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "status", length = 30)
+    @Enumerated(EnumType.STRING)
+    private EventStatus status;
+
+    @Column(name = "event_timestamp")
+    private LocalDateTime eventTimestamp;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    /** Transação que gravou a linha (xid8). Não é preenchido em entidades recém-inseridas. */
+    @Column(name = "txid", insertable = false, updatable = false,
+            columnDefinition = "xid8 NOT NULL DEFAULT pg_current_xact_id()")
+    private Long txid;
+
+    // ==================== CONSTRUTORES ====================
+
+    public ChangeFeedEntry() {
+    }
+
+    public ChangeFeedEntry(ChangeType changeType, String trackingCode) {
+        this.changeType = changeType;
+        this.trackingCode = trackingCode;
+        this.recordedAt = LocalDateTime.now();
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(ChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public String getTrackingCode() {
+        return trackingCode;
+    }
+
+    public void setTrackingCode(String trackingCode) {
+        this.trackingCode = trackingCode;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public EventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EventStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getEventTimestamp() {
+        return eventTimestamp;
+    }
+
+    public void setEventTimestamp(LocalDateTime eventTimestamp) {
+        this.eventTimestamp = eventTimestamp;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public Long getTxid() {
+        return txid;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "ChangeFeedEntry{" +
+                "seq=" + seq +
+                ", changeType=" + changeType +
+                ", trackingCode='" + trackingCode + '\'' +
+                ", eventId=" + eventId +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.gwchallenge.model;
+
+/**
+ * Tipos de alteração registrados no feed de alterações (change_feed).
+ */
+public enum ChangeType {
+
+    /** Um novo pacote foi cadastrado. */
+    PACKAGE_CREATED,
+
+    /** Um novo evento foi registrado na timeline de um pacote. */
+    EVENT_CREATED,
+
+    /** Tombstone: um evento foi removido. */
+    EVENT_DELETED,
+
+    /** Tombstone: um pacote (e todos os seus eventos) foi removido. */
+    PACKAGE_DELETED
+}
@@ -1,6 +1,8 @@
 package com.gwchallenge.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -11,19 +13,29 @@ import java.time.LocalDateTime;
  * Cada evento registra uma atualização de status de um pacote específico.
  */
 @Entity
-@Table(name = "event")
+@Table(name = "event", indexes = {
+        @Index(name = "idx_event_tracking_timestamp", columnList = "tracking_code, event_timestamp"),
+        @Index(name = "idx_event_tracking_id", columnList = "tracking_code, id"),
+        @Index(name = "idx_event_status_timestamp", columnList = "status, event_timestamp, id")
+})
 public class Event {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "event_timestamp", nullable = false)
+    /**
+     * Data/hora do evento em UTC (coluna TIMESTAMPTZ; a JVM e o Hibernate usam UTC).
+     */
+    @Column(name = "event_timestamp", nullable = false, columnDefinition = "TIMESTAMPTZ")
     @NotNull(message = "Event timestamp cannot be null")
     private LocalDateTime eventTimestamp;
 
-    @Column(name = "status", nullable = false)
-    @Enumerated(EnumType.STRING)
+    /**
+     * Status gravado como código SMALLINT estável (ver EventStatusConverter).
+     */
+    @Column(name = "status", nullable = false, columnDefinition = "SMALLINT")
+    @Convert(converter = EventStatusConverter.class)
     @NotNull(message = "Event status cannot be null")
     private EventStatus status;
 
@@ -33,10 +45,13 @@ public class Event {
     /**
      * Relacionamento ManyToOne com Package.
      * @JsonBackReference previne serialização infinita.
+     * @OnDelete gera a FK com ON DELETE CASCADE (igual à migration 001),
+     * permitindo deletar pacotes com um único DELETE.
      */
     @JsonBackReference
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tracking_code", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Package packageEntity;
 
     // ==================== CONSTRUTORES ====================
@@ -6,27 +6,62 @@ package com.gwchallenge.model;
  * 
  * Os nomes são em inglês para manter o padrão do código,
  * e os comentários servem como guia para entendimento do status.
+ * 
+ * Cada status tem um código numérico estável, gravado no banco como SMALLINT
+ * (ver EventStatusConverter). Os códigos NUNCA devem ser reaproveitados ou alterados;
+ * novos status recebem o próximo código livre.
  */
 public enum EventStatus {
 
     /** A encomenda foi registrada no sistema, mas ainda não saiu do local de origem. */
-    CREATED,
+    CREATED((short) 1),
 
     /** A encomenda foi despachada e está a caminho do centro de distribuição. */
-    SHIPPED,
+    SHIPPED((short) 2),
 
     /** A encomenda chegou ao centro de distribuição e está aguardando envio. */
-    IN_TRANSIT,
+    IN_TRANSIT((short) 3),
 
     /** A encomenda saiu para entrega ao destinatário. */
-    OUT_FOR_DELIVERY,
+    OUT_FOR_DELIVERY((short) 4),
 
     /** A encomenda foi entregue com sucesso ao cliente. */
-    DELIVERED,
+    DELIVERED((short) 5),
 
     /** A tentativa de entrega falhou (ex: destinatário ausente, endereço incorreto etc.). */
-    UNDELIVERED,
+    UNDELIVERED((short) 6),
 
     /** A encomenda foi devolvida ao remetente. */
-    RETURNED
+    RETURNED((short) 7);
+
+    private final short code;
+
+    EventStatus(short code) {
+        this.code = code;
+    }
+
+    /**
+     * Código numérico estável usado na coluna event.status.
+     */
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * Converte o código gravado no banco de volta para o enum.
+     *
+     * @param code código numérico do status
+     * @return EventStatus correspondente
+     * @throws IllegalArgumentException se o código for desconhecido
+     */
+    public static EventStatus fromCode(short code) {
+        for (EventStatus status : VALUES) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Código de status desconhecido: " + code);
+    }
+
+    private static final EventStatus[] VALUES = values();
 }
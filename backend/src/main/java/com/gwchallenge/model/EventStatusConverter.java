@@ -0,0 +1,25 @@
+package com.gwchallenge.model;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Converte EventStatus para o código SMALLINT gravado em event.status (e vice-versa).
+ *
+ * Comparado a gravar o nome do enum (VARCHAR), cada linha e cada entrada de índice
+ * que inclui o status ocupam 2 bytes em vez de até 17, e o código não depende da
+ * ordem de declaração do enum (ao contrário de EnumType.ORDINAL).
+ */
+@Converter
+public class EventStatusConverter implements AttributeConverter<EventStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(EventStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public EventStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : EventStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,181 @@
+package com.gwchallenge.model;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidade JPA que representa uma notificação pendente para um parceiro (tabela webhook_outbox).
+ *
+ * É gravada na mesma transação do evento que a originou (padrão Transactional Outbox):
+ * se o evento for confirmado, a notificação também é; se houver rollback, nenhuma das duas existe.
+ * A entrega HTTP acontece depois, fora da transação, pelo WebhookRelay.
+ */
+@Entity
+@Table(name = "webhook_outbox")
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "endpoint_url", length = 500, nullable = false)
+    private String endpointUrl;
+
+    @Column(name = "tracking_code", length = 50, nullable = false)
+    private String trackingCode;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "status", length = 30, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private EventStatus status;
+
+    @Column(name = "event_timestamp", nullable = false)
+    private LocalDateTime eventTimestamp;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    // ==================== CONSTRUTORES ====================
+
+    public OutboxMessage() {
+    }
+
+    public OutboxMessage(String endpointUrl, String trackingCode, Event event) {
+        this.endpointUrl = endpointUrl;
+        this.trackingCode = trackingCode;
+        this.eventId = event.getId();
+        this.status = event.getStatus();
+        this.eventTimestamp = event.getEventTimestamp();
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    // ==================== GETTERS E SETTERS ====================
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEndpointUrl() {
+        return endpointUrl;
+    }
+
+    public void setEndpointUrl(String endpointUrl) {
+        this.endpointUrl = endpointUrl;
+    }
+
+    public String getTrackingCode() {
+        return trackingCode;
+    }
+
+    public void setTrackingCode(String trackingCode) {
+        this.trackingCode = trackingCode;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public EventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EventStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getEventTimestamp() {
+        return eventTimestamp;
+    }
+
+    public void setEventTimestamp(LocalDateTime eventTimestamp) {
+        this.eventTimestamp = eventTimestamp;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public void setDeliveredAt(LocalDateTime deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+
+    public void setFailedAt(LocalDateTime failedAt) {
+        this.failedAt = failedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    // ==================== TOSTRING ====================
+
+    @Override
+    public String toString() {
+        return "OutboxMessage{" +
+                "id=" + id +
+                ", endpointUrl='" + endpointUrl + '\'' +
+                ", trackingCode='" + trackingCode + '\'' +
+                ", eventId=" + eventId +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -1,6 +1,8 @@
 package com.gwchallenge.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import org.springframework.data.domain.Persistable;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -11,10 +13,15 @@ import java.util.List;
 /**
  * Entidade JPA que representa um pacote/encomenda rastreável.
  * Contém informações do destinatário e histórico de eventos.
+ *
+ * Implementa Persistable: como o ID (trackingCode) é atribuído pela aplicação, o Spring Data
+ * não saberia se a entidade é nova e faria merge (SELECT + INSERT). Instâncias criadas com
+ * {@code new} são novas até serem persistidas; as carregadas do banco não são. Assim
+ * {@code save()} de um pacote novo é um INSERT direto, e a duplicidade é detectada pela PK.
  */
 @Entity
 @Table(name = "package")
-public class Package {
+public class Package implements Persistable<String> {
 
     @Id
     @Column(name = "tracking_code", length = 50, nullable = false)
@@ -34,8 +41,11 @@ public class Package {
     /**
      * Lista de eventos deste pacote.
      * @JsonManagedReference permite serialização dos eventos.
+     * @OrderBy fixa a ordem (ID, índice idx_event_tracking_id), a mesma da leitura
+     * direta para JSON (PackageJsonRepository).
      */
     @JsonManagedReference
+    @OrderBy("id ASC")
     @OneToMany(
         mappedBy = "packageEntity",
         cascade = CascadeType.ALL,
@@ -44,6 +54,10 @@ public class Package {
     )
     private List<Event> events = new ArrayList<>();
 
+    /** Não persistido: true até o INSERT (ou false desde o carregamento). */
+    @Transient
+    private boolean isNew = true;
+
     // ==================== CONSTRUTORES ====================
     
     public Package() {
@@ -89,6 +103,26 @@ public class Package {
         this.events = events;
     }
 
+    // ==================== PERSISTABLE ====================
+
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return trackingCode;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     // ==================== MÉTODOS AUXILIARES ====================
     
     /**
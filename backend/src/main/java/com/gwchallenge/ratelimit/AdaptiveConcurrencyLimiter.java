@@ -0,0 +1,85 @@
+package com.gwchallenge.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitador adaptativo de concorrência (AIMD).
+ *
+ * Mantém um limite de requisições simultâneas que se ajusta pela latência observada:
+ * - Latência abaixo do alvo: o limite cresce devagar (+1 a cada "limite" respostas rápidas)
+ * - Latência acima do alvo: o limite cai multiplicativamente (x {@code backoffRatio})
+ *
+ * Quando o número de requisições em andamento atinge o limite, novas requisições
+ * são rejeitadas imediatamente (load shedding) em vez de enfileiradas. Assim a fila
+ * do Tomcat e o pool de conexões não acumulam espera, e a latência de quem é
+ * atendido permanece estável durante picos.
+ *
+ * Todo o estado é atômico (sem locks): o limite é guardado como bits de double em um AtomicLong.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long targetLatencyMillis, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyMillis * 1_000_000L;
+        this.backoffRatio = backoffRatio;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(
+                Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+
+    /**
+     * Tenta reservar uma vaga de execução.
+     *
+     * @return true se a requisição pode prosseguir (e {@link #release(long)} deve ser chamado depois)
+     */
+    public boolean tryAcquire() {
+        int limit = (int) getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga e realimenta o limite com a latência medida.
+     *
+     * @param latencyNanos duração da requisição
+     */
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next = latencyNanos > targetLatencyNanos
+                    ? limit * backoffRatio
+                    : limit + 1.0 / limit;
+            next = Math.max(minLimit, Math.min(maxLimit, next));
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    public double getLimit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,71 @@
+package com.gwchallenge.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Conjunto de token buckets, um por cliente (API key ou IP).
+ *
+ * Os buckets são criados sob demanda em um ConcurrentHashMap, até {@code maxClients}.
+ * Com o mapa cheio, clientes novos não ganham bucket próprio: todos dividem um único
+ * bucket de excedentes (mesma taxa de um cliente). Assim uma varredura de IPs não faz o
+ * mapa crescer além do limite nem custa nada além de uma consulta ao mapa por requisição.
+ *
+ * Buckets ociosos (já totalmente recarregados) são descartados por evictIdle, chamado em
+ * segundo plano (RateLimitConfig), nunca na thread da requisição. Descartar um bucket
+ * ocioso é seguro: recriá-lo gera exatamente o mesmo estado.
+ *
+ * O limite é aproximado por, no máximo, o número de threads que criam buckets ao mesmo tempo
+ * (a verificação do tamanho e a inserção não são atômicas juntas).
+ */
+public class ClientRateLimiter {
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int maxClients;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /** Compartilhado pelos clientes que chegam com o mapa cheio. */
+    private final TokenBucket overflow;
+
+    public ClientRateLimiter(double permitsPerSecond, int burst, int maxClients) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxClients = maxClients;
+        this.overflow = new TokenBucket(permitsPerSecond, burst);
+    }
+
+    /**
+     * Tenta consumir um token do cliente informado.
+     *
+     * @param clientKey identificador do cliente
+     * @return 0 se permitido; caso contrário, nanos até o próximo token
+     */
+    public long tryAcquire(String clientKey) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                return overflow.tryAcquire(now);
+            }
+            bucket = buckets.computeIfAbsent(clientKey, k -> new TokenBucket(permitsPerSecond, burst));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * Remove buckets de clientes ociosos (varredura do mapa inteiro; chamar fora das requisições).
+     *
+     * @return quantidade de buckets removidos
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        return before - buckets.size();
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,98 @@
+package com.gwchallenge.ratelimit;
+
+import com.gwchallenge.exception.ProblemJsonWriter;
+import com.gwchallenge.exception.ProblemType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de controle de admissão aplicado antes dos controllers.
+ *
+ * Ordem das verificações:
+ * 1. Token bucket por cliente (API key ou IP), separado para leitura e escrita → 429
+ * 2. Limite adaptativo de concorrência global → 503
+ *
+ * Ambas as respostas incluem o header Retry-After e o mesmo corpo problem+json
+ * produzido pelo GlobalExceptionHandler (ProblemJsonWriter).
+ * Requisições OPTIONS (preflight CORS) não são limitadas.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private final ClientRateLimiter readLimiter;
+    private final ClientRateLimiter writeLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public RateLimitFilter(ClientRateLimiter readLimiter,
+                           ClientRateLimiter writeLimiter,
+                           AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if ("OPTIONS".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // 1. Limite por cliente (leitura e escrita têm baldes independentes)
+        ClientRateLimiter limiter = isRead(request) ? readLimiter : writeLimiter;
+        long waitNanos = limiter.tryAcquire(resolveClientKey(request));
+        if (waitNanos > 0) {
+            reject(request, response, ProblemType.RATE_LIMITED, toRetryAfterSeconds(waitNanos),
+                    "Limite de requisições excedido para este cliente");
+            return;
+        }
+
+        // 2. Limite global de concorrência (load shedding)
+        if (!concurrencyLimiter.tryAcquire()) {
+            reject(request, response, ProblemType.OVERLOADED, 1,
+                    "Servidor sobrecarregado, tente novamente em instantes");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            concurrencyLimiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    /**
+     * Identifica o cliente pela API key, se enviada; caso contrário, pelo IP de origem.
+     */
+    private String resolveClientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && !apiKey.isBlank()) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, ProblemType problem,
+                        long retryAfterSeconds, String message) throws IOException {
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        ProblemJsonWriter.write(response, problem, message, request.getRequestURI());
+    }
+}
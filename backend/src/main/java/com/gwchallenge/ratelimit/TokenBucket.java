@@ -0,0 +1,63 @@
+package com.gwchallenge.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket lock-free baseado em GCRA (Generic Cell Rate Algorithm).
+ *
+ * Em vez de guardar "tokens restantes" + "último refill" (dois campos que
+ * precisariam de lock para serem atualizados juntos), o estado inteiro cabe
+ * em um único AtomicLong: o TAT (theoretical arrival time), em nanos.
+ *
+ * - Cada requisição aceita empurra o TAT para frente em {@code emissionIntervalNanos}
+ * - A requisição é rejeitada se o TAT ficar mais de {@code burst} intervalos à frente do relógio
+ * - Atualização via CAS: nenhum thread bloqueia outro
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param permitsPerSecond taxa sustentada de requisições
+     * @param burst quantidade máxima de requisições aceitas de uma vez (capacidade do balde)
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1L);
+    }
+
+    /**
+     * Tenta consumir um token.
+     *
+     * @param nowNanos relógio monotônico (System.nanoTime())
+     * @return 0 se o token foi concedido; caso contrário, nanos até o próximo token disponível
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = (tat == Long.MIN_VALUE || tat - nowNanos < 0) ? nowNanos : tat;
+            long newTat = base + emissionIntervalNanos;
+            long allowAt = newTat - emissionIntervalNanos - burstToleranceNanos;
+
+            if (allowAt - nowNanos > 0) {
+                return allowAt - nowNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Indica se o balde está cheio (cliente ocioso), permitindo descartá-lo do mapa.
+     */
+    public boolean isIdle(long nowNanos) {
+        long tat = theoreticalArrival.get();
+        return tat == Long.MIN_VALUE || tat - nowNanos <= 0;
+    }
+}
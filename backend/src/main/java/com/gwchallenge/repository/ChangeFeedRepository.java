@@ -0,0 +1,103 @@
+package com.gwchallenge.repository;
+
+import com.gwchallenge.model.ChangeFeedEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ChangeFeedRepository
+ *
+ * Repositório JPA do feed de alterações (tabela change_feed).
+ */
+@Repository
+public interface ChangeFeedRepository extends JpaRepository<ChangeFeedEntry, Long> {
+
+    /**
+     * Leitura por keyset a partir do cursor (seq da última alteração entregue).
+     *
+     * A ordem de entrega é (txid, seq), não só seq: o seq é obtido no INSERT, mas a linha só
+     * aparece no COMMIT, então uma transação com seq=9 pode confirmar depois de outra com seq=10.
+     * Por isso só são entregues linhas de transações abaixo de pg_snapshot_xmin (todas as
+     * transações mais antigas já terminaram): nenhuma linha nova pode surgir antes do cursor,
+     * sem lock entre os escritores. O txid do cursor vem da própria linha (chave primária);
+     * cursor 0 lê desde o início.
+     *
+     * @param after seq da última alteração entregue (0 = desde o início)
+     * @param pageable limite de linhas
+     * @return alterações em ordem de entrega
+     */
+    @Query(value = "SELECT c.* FROM change_feed c "
+            + "WHERE (c.txid, c.seq) > (COALESCE((SELECT p.txid FROM change_feed p WHERE p.seq = :after), '0'::xid8), :after) "
+            + "AND c.txid < pg_snapshot_xmin(pg_current_snapshot()) "
+            + "ORDER BY c.txid, c.seq",
+            nativeQuery = true)
+    List<ChangeFeedEntry> findAfter(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Mesma leitura, apenas dos tipos informados (ex: criações/remoções de pacotes).
+     */
+    @Query(value = "SELECT c.* FROM change_feed c "
+            + "WHERE (c.txid, c.seq) > (COALESCE((SELECT p.txid FROM change_feed p WHERE p.seq = :after), '0'::xid8), :after) "
+            + "AND c.txid < pg_snapshot_xmin(pg_current_snapshot()) "
+            + "AND c.change_type IN (:types) "
+            + "ORDER BY c.txid, c.seq",
+            nativeQuery = true)
+    List<ChangeFeedEntry> findAfterOfTypes(@Param("after") long after, @Param("types") Collection<String> types,
+                                           Pageable pageable);
+
+    /**
+     * Cursor que cobre tudo o que já está visível e não pode mais mudar de posição:
+     * seq da última linha (na ordem de entrega) de transações abaixo de pg_snapshot_xmin (0 se nenhuma).
+     * Quem carrega um snapshot completo (filtro de códigos, pacotes parados) passa a seguir o feed daqui.
+     */
+    @Query(value = "SELECT COALESCE((SELECT c.seq FROM change_feed c "
+            + "WHERE c.txid < pg_snapshot_xmin(pg_current_snapshot()) "
+            + "ORDER BY c.txid DESC, c.seq DESC LIMIT 1), 0)",
+            nativeQuery = true)
+    Long findWatermarkSeq();
+
+    /**
+     * Seqs dos tipos informados já visíveis neste snapshot, mas ainda após o cursor
+     * (transações confirmadas acima de pg_snapshot_xmin). Serão entregues de novo pelo feed;
+     * quem carregou o snapshot usa a lista para não aplicá-las duas vezes.
+     */
+    @Query(value = "SELECT c.seq FROM change_feed c "
+            + "WHERE (c.txid, c.seq) > (COALESCE((SELECT p.txid FROM change_feed p WHERE p.seq = :after), '0'::xid8), :after) "
+            + "AND c.change_type IN (:types)",
+            nativeQuery = true)
+    List<Long> findVisibleSeqsAfter(@Param("after") long after, @Param("types") Collection<String> types);
+
+    /**
+     * Grava uma alteração do mesmo tipo para vários pacotes em um único INSERT.
+     *
+     * O seq é IDENTITY, então o Hibernate não agruparia os INSERTs em batch; aqui as
+     * linhas recebem seq na ordem da lista (WITH ORDINALITY).
+     *
+     * @return quantidade de linhas gravadas
+     */
+    @Modifying
+    @Query(value = "INSERT INTO change_feed (change_type, tracking_code, recorded_at) "
+            + "SELECT :changeType, t.code, :recordedAt "
+            + "FROM unnest(ARRAY[:trackingCodes]) WITH ORDINALITY AS t(code, ord) ORDER BY t.ord",
+            nativeQuery = true)
+    int insertPackageChanges(@Param("changeType") String changeType,
+                             @Param("trackingCodes") Collection<String> trackingCodes,
+                             @Param("recordedAt") LocalDateTime recordedAt);
+
+    /**
+     * Agenda uma notificação NOTIFY (entregue pelo PostgreSQL no COMMIT; descartada no ROLLBACK).
+     * Usado pelo ClusterBus para avisar os outros nós que o feed mudou.
+     *
+     * @return sempre 1
+     */
+    @Query(value = "SELECT 1 FROM pg_notify(:channel, :payload)", nativeQuery = true)
+    Integer notifyChannel(@Param("channel") String channel, @Param("payload") String payload);
+}
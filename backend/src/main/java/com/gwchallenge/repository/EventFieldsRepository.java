@@ -0,0 +1,26 @@
+package com.gwchallenge.repository;
+
+import com.gwchallenge.dto.EventField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consultas de eventos com seleção de campos ({@code ?fields=}).
+ *
+ * Fragmento do EventRepository (implementação em EventFieldsRepositoryImpl):
+ * o SELECT contém só as colunas dos campos pedidos, sem carregar a entidade.
+ */
+public interface EventFieldsRepository {
+
+    /**
+     * Busca os campos pedidos dos eventos de um pacote, mais recentes primeiro
+     * (event_timestamp DESC, id DESC; índice idx_event_tracking_timestamp).
+     *
+     * @param fields campos pedidos
+     * @param trackingCode código do pacote
+     * @return linhas (nome do campo → valor, na ordem de EventField)
+     */
+    List<Map<String, Object>> findEventFields(Set<EventField> fields, String trackingCode);
+}
@@ -0,0 +1,48 @@
+package com.gwchallenge.repository;
+
+import com.gwchallenge.dto.EventField;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementação de EventFieldsRepository: consulta JPQL montada só com as expressões
+ * de EventField (nenhum texto do cliente entra na consulta).
+ *
+ * SELECT &lt;campos pedidos&gt; FROM Event e WHERE e.packageEntity.trackingCode = :trackingCode
+ */
+public class EventFieldsRepositoryImpl implements EventFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findEventFields(Set<EventField> fields, String trackingCode) {
+        List<EventField> columns = new ArrayList<>(fields);
+        List<String> select = new ArrayList<>();
+        columns.forEach(field -> select.add(field.getExpression()));
+
+        String jpql = "SELECT " + String.join(", ", select) + " FROM Event e"
+                + " WHERE e.packageEntity.trackingCode = :trackingCode"
+                + " ORDER BY e.eventTimestamp DESC, e.id DESC";
+        List<Tuple> tuples = entityManager.createQuery(jpql, Tuple.class)
+                .setParameter("trackingCode", trackingCode)
+                .getResultList();
+
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                row.put(columns.get(i).getJsonName(), tuple.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
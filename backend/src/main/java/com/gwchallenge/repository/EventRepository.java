@@ -1,10 +1,18 @@
 package com.gwchallenge.repository;
 
+import com.gwchallenge.dto.EventResponseDTO;
 import com.gwchallenge.model.Event;
+import com.gwchallenge.model.EventStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * EventRepository
@@ -12,9 +20,10 @@ import java.util.List;
  * Repositório JPA responsável por operações com a entidade Event.
  * Fornece métodos prontos (findAll, save, findById, etc.) e
  * consultas personalizadas utilizando nomenclatura derivada.
+ * Consultas com seleção de campos (?fields=) vêm do fragmento EventFieldsRepository.
  */
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventFieldsRepository {
 
     /**
      * Busca eventos associados a um determinado pacote,
@@ -32,4 +41,159 @@ public interface EventRepository extends JpaRepository<Event, Long> {
      * @return lista de eventos
      */
     List<Event> findByPackageEntity_TrackingCode(String trackingCode);
+
+    /**
+     * Busca os eventos de um pacote com ID maior que o cursor informado (sincronização incremental).
+     * Usa o índice idx_event_tracking_id (tracking_code, id): custo proporcional aos eventos novos.
+     *
+     * @param trackingCode código de rastreamento do pacote
+     * @param sinceId cursor (último ID já conhecido pelo cliente)
+     * @param pageable limite de eventos retornados
+     * @return eventos novos em ordem crescente de ID
+     */
+    List<Event> findByPackageEntity_TrackingCodeAndIdGreaterThanOrderByIdAsc(
+            String trackingCode, Long sinceId, Pageable pageable);
+
+    /**
+     * Busca os eventos de um pacote registrados depois de uma data/hora.
+     * Usado na primeira sincronização, quando o cliente ainda não tem cursor.
+     *
+     * @param trackingCode código de rastreamento do pacote
+     * @param since data/hora de corte (exclusiva)
+     * @param pageable limite de eventos retornados
+     * @return eventos em ordem crescente de ID
+     */
+    List<Event> findByPackageEntity_TrackingCodeAndEventTimestampAfterOrderByIdAsc(
+            String trackingCode, LocalDateTime since, Pageable pageable);
+
+    /**
+     * Eventos mais recentes de um pacote direto como DTO (primeira página da linha do tempo
+     * e eventos embutidos na busca do pacote).
+     * Usa o índice idx_event_tracking_timestamp (tracking_code, event_timestamp) em ordem inversa:
+     * custo proporcional ao tamanho da página, não ao histórico do pacote.
+     *
+     * @param trackingCode código de rastreamento do pacote
+     * @param pageable tamanho da página
+     * @return eventos ordenados por (event_timestamp, id) decrescente
+     */
+    @Query("SELECT new com.gwchallenge.dto.EventResponseDTO(e.id, e.eventTimestamp, e.status, e.description, " +
+            "e.packageEntity.trackingCode) FROM Event e WHERE e.packageEntity.trackingCode = :trackingCode " +
+            "ORDER BY e.eventTimestamp DESC, e.id DESC")
+    List<EventResponseDTO> findRecentResponses(@Param("trackingCode") String trackingCode, Pageable pageable);
+
+    /**
+     * Página seguinte da linha do tempo: eventos anteriores ao cursor (keyset), mesma ordem
+     * de findRecentResponses. O {@code event_timestamp <= :cursorTimestamp} redundante
+     * permite usar o cursor como limite da varredura no índice.
+     *
+     * @param trackingCode código de rastreamento do pacote
+     * @param cursorTimestamp timestamp do último evento da página anterior
+     * @param cursorId ID do último evento da página anterior
+     * @param pageable tamanho da página
+     * @return eventos ordenados por (event_timestamp, id) decrescente
+     */
+    @Query("SELECT new com.gwchallenge.dto.EventResponseDTO(e.id, e.eventTimestamp, e.status, e.description, " +
+            "e.packageEntity.trackingCode) FROM Event e WHERE e.packageEntity.trackingCode = :trackingCode " +
+            "AND e.eventTimestamp <= :cursorTimestamp " +
+            "AND (e.eventTimestamp < :cursorTimestamp OR e.id < :cursorId) " +
+            "ORDER BY e.eventTimestamp DESC, e.id DESC")
+    List<EventResponseDTO> findResponsesBefore(@Param("trackingCode") String trackingCode,
+                                               @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable pageable);
+
+    /**
+     * Total de eventos de um pacote (varredura só do índice idx_event_tracking_id).
+     *
+     * @param trackingCode código de rastreamento do pacote
+     * @return quantidade de eventos
+     */
+    long countByPackageEntity_TrackingCode(String trackingCode);
+
+    /**
+     * Deleta um evento em um único comando SQL (sem SELECT prévio),
+     * retornando o código do pacote ao qual ele pertencia.
+     *
+     * @param id ID do evento
+     * @return lista com o tracking code do evento removido, ou vazia se não existia
+     */
+    @Query(value = "DELETE FROM event WHERE id = :id RETURNING tracking_code", nativeQuery = true)
+    List<String> deleteByIdReturningTrackingCode(@Param("id") Long id);
+
+    /**
+     * Busca eventos de qualquer pacote com um status, dentro de uma janela de tempo,
+     * do mais recente para o mais antigo, a partir de um cursor (keyset).
+     * Usa o índice idx_event_status_timestamp (status, event_timestamp, id).
+     *
+     * O {@code eventTimestamp <= :cursorTimestamp} é redundante com o OR, mas vira condição
+     * do índice: páginas profundas começam no cursor em vez de filtrar tudo o que vem antes dele.
+     *
+     * @param status status dos eventos
+     * @param from início da janela (inclusivo)
+     * @param cursorTimestamp timestamp do último evento da página anterior (ou o fim da janela)
+     * @param cursorId ID do último evento da página anterior (0 na primeira página)
+     * @param pageable tamanho da página
+     * @return eventos ordenados por (event_timestamp, id) decrescente
+     */
+    @Query("SELECT e FROM Event e WHERE e.status = :status AND e.eventTimestamp >= :from " +
+            "AND e.eventTimestamp <= :cursorTimestamp " +
+            "AND (e.eventTimestamp < :cursorTimestamp OR (e.eventTimestamp = :cursorTimestamp AND e.id < :cursorId)) " +
+            "ORDER BY e.eventTimestamp DESC, e.id DESC")
+    List<Event> searchByStatus(@Param("status") EventStatus status,
+                               @Param("from") LocalDateTime from,
+                               @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                               @Param("cursorId") Long cursorId,
+                               Pageable pageable);
+
+    /**
+     * Mesma busca de searchByStatus, mas sem filtro de status (todos os eventos da janela).
+     * Usa o índice idx_event_timestamp_id (event_timestamp, id), na ordem da paginação.
+     */
+    @Query("SELECT e FROM Event e WHERE e.eventTimestamp >= :from " +
+            "AND e.eventTimestamp <= :cursorTimestamp " +
+            "AND (e.eventTimestamp < :cursorTimestamp OR (e.eventTimestamp = :cursorTimestamp AND e.id < :cursorId)) " +
+            "ORDER BY e.eventTimestamp DESC, e.id DESC")
+    List<Event> searchByTimeWindow(@Param("from") LocalDateTime from,
+                                   @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                                   @Param("cursorId") Long cursorId,
+                                   Pageable pageable);
+
+    /**
+     * Último evento (por event_timestamp) de cada pacote, apenas dos pacotes cujo último
+     * status está entre os informados. Usado para reconstruir o índice de prazos do
+     * StuckPackageDetector na inicialização.
+     *
+     * @param statusCodes códigos (EventStatus.getCode) dos status de interesse
+     * @return linhas [tracking_code, status, event_timestamp]
+     */
+    @Query(value = "SELECT l.tracking_code, l.status, l.event_timestamp FROM (" +
+            "SELECT DISTINCT ON (tracking_code) tracking_code, status, event_timestamp FROM event " +
+            "ORDER BY tracking_code, event_timestamp DESC, id DESC) l " +
+            "WHERE l.status IN (:statusCodes)", nativeQuery = true)
+    List<Object[]> findLatestEventsWithStatus(@Param("statusCodes") Collection<Short> statusCodes);
+
+    /**
+     * Último evento de um pacote (mesma ordem da linha do tempo).
+     */
+    Optional<Event> findFirstByPackageEntity_TrackingCodeOrderByEventTimestampDescIdDesc(String trackingCode);
+
+    /**
+     * Eventos de alguns pacotes direto como DTO (projeção por construtor, sem entidades
+     * no contexto de persistência). Usado por ?fields=events.
+     *
+     * @param trackingCodes códigos dos pacotes
+     * @return eventos em ordem de pacote e ID
+     */
+    @Query("SELECT new com.gwchallenge.dto.EventResponseDTO(e.id, e.eventTimestamp, e.status, e.description, " +
+            "e.packageEntity.trackingCode) FROM Event e WHERE e.packageEntity.trackingCode IN :trackingCodes " +
+            "ORDER BY e.packageEntity.trackingCode, e.id")
+    List<EventResponseDTO> findResponsesByTrackingCodes(@Param("trackingCodes") Collection<String> trackingCodes);
+
+    /**
+     * Todos os eventos direto como DTO (mesma projeção de findResponsesByTrackingCodes).
+     * Usado por GET /api/packages?fields=events.
+     */
+    @Query("SELECT new com.gwchallenge.dto.EventResponseDTO(e.id, e.eventTimestamp, e.status, e.description, " +
+            "e.packageEntity.trackingCode) FROM Event e ORDER BY e.packageEntity.trackingCode, e.id")
+    List<EventResponseDTO> findAllResponses();
 }
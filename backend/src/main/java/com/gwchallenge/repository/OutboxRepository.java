@@ -0,0 +1,61 @@
+package com.gwchallenge.repository;
+
+import com.gwchallenge.model.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * OutboxRepository
+ *
+ * Repositório JPA da tabela webhook_outbox (notificações pendentes para parceiros).
+ */
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Reivindica (claim) um lote de mensagens prontas para entrega.
+     *
+     * - FOR UPDATE SKIP LOCKED: várias instâncias do relay podem rodar ao mesmo tempo
+     *   sem disputar as mesmas linhas (cada uma pula as que já estão travadas)
+     * - O UPDATE empurra next_attempt_at para frente (lease): enquanto a entrega acontece
+     *   fora da transação, as linhas não são reivindicadas de novo; se o nó cair,
+     *   voltam a ficar disponíveis quando o lease expirar
+     *
+     * @param batchSize tamanho máximo do lote
+     * @param leaseSeconds duração do lease
+     * @return mensagens reivindicadas
+     */
+    @Query(value = "UPDATE webhook_outbox SET next_attempt_at = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds) " +
+            "WHERE id IN (" +
+            "  SELECT id FROM webhook_outbox " +
+            "  WHERE delivered_at IS NULL AND failed_at IS NULL AND next_attempt_at <= LOCALTIMESTAMP " +
+            "  ORDER BY next_attempt_at, id LIMIT :batchSize FOR UPDATE SKIP LOCKED" +
+            ") RETURNING *", nativeQuery = true)
+    List<OutboxMessage> claimBatch(@Param("batchSize") int batchSize, @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * Marca um conjunto de mensagens como entregues (um único UPDATE para o lote).
+     */
+    @Modifying
+    @Query("UPDATE OutboxMessage o SET o.deliveredAt = :deliveredAt, o.attempts = o.attempts + 1 WHERE o.id IN :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    /**
+     * Quantidade de mensagens ainda não entregues (métrica de backlog).
+     */
+    @Query("SELECT COUNT(o) FROM OutboxMessage o WHERE o.deliveredAt IS NULL AND o.failedAt IS NULL")
+    long countPending();
+
+    /**
+     * Data de criação da mensagem pendente mais antiga (métrica de lag).
+     */
+    @Query("SELECT MIN(o.createdAt) FROM OutboxMessage o WHERE o.deliveredAt IS NULL AND o.failedAt IS NULL")
+    LocalDateTime findOldestPendingCreatedAt();
+}
@@ -0,0 +1,26 @@
+package com.gwchallenge.repository;
+
+import com.gwchallenge.dto.PackageField;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consultas de pacotes com seleção de campos ({@code ?fields=}).
+ *
+ * Fragmento do PackageRepository (implementação em PackageFieldsRepositoryImpl):
+ * o SELECT contém só as colunas dos campos pedidos, sem carregar a entidade.
+ */
+public interface PackageFieldsRepository {
+
+    /**
+     * Busca os campos pedidos de um pacote ou de todos os pacotes.
+     *
+     * O campo {@code events} não é lido aqui (consulta própria, só quando pedido).
+     *
+     * @param fields campos pedidos
+     * @param trackingCode código do pacote (null = todos os pacotes, em ordem de código)
+     * @return linhas (nome do campo → valor, na ordem de PackageField), indexadas pelo código
+     */
+    Map<String, Map<String, Object>> findPackageFields(Set<PackageField> fields, String trackingCode);
+}
@@ -0,0 +1,68 @@
+package com.gwchallenge.repository;
+
+import com.gwchallenge.dto.PackageField;
+import com.gwchallenge.model.EventStatus;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementação de PackageFieldsRepository: consulta JPQL montada só com as expressões
+ * de PackageField (nenhum texto do cliente entra na consulta).
+ *
+ * SELECT p.trackingCode, &lt;campos pedidos&gt; FROM Package p [WHERE p.trackingCode = :trackingCode]
+ */
+public class PackageFieldsRepositoryImpl implements PackageFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<String, Map<String, Object>> findPackageFields(Set<PackageField> fields, String trackingCode) {
+        List<PackageField> columns = fields.stream()
+                .filter(field -> field.getExpression() != null)
+                .collect(Collectors.toList());
+
+        // O código vem sempre na primeira coluna (chave do resultado)
+        List<String> select = new ArrayList<>();
+        select.add("p.trackingCode");
+        columns.forEach(field -> select.add(field.getExpression()));
+
+        String jpql = "SELECT " + String.join(", ", select) + " FROM Package p"
+                + (trackingCode != null ? " WHERE p.trackingCode = :trackingCode" : "")
+                + " ORDER BY p.trackingCode";
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        if (trackingCode != null) {
+            query.setParameter("trackingCode", trackingCode);
+        }
+
+        Map<String, Map<String, Object>> rows = new LinkedHashMap<>();
+        for (Tuple tuple : query.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                row.put(columns.get(i).getJsonName(), toValue(columns.get(i), tuple.get(i + 1)));
+            }
+            rows.put(tuple.get(0, String.class), row);
+        }
+        return rows;
+    }
+
+    /**
+     * latestStatus vem de uma subconsulta: conforme o dialeto, o Hibernate devolve o
+     * SMALLINT sem aplicar o EventStatusConverter.
+     */
+    private static Object toValue(PackageField field, Object value) {
+        if (field == PackageField.LATEST_STATUS && value instanceof Number) {
+            return EventStatus.fromCode(((Number) value).shortValue());
+        }
+        return value;
+    }
+}
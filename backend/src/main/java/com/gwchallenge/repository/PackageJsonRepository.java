@@ -0,0 +1,36 @@
+package com.gwchallenge.repository;
+
+import com.gwchallenge.export.PackageRowWriter;
+
+import java.util.Optional;
+
+/**
+ * Leitura de pacotes direto das linhas (package LEFT JOIN event), sem entidades nem DTOs.
+ *
+ * Fragmento do PackageRepository (implementação em PackageJsonRepositoryImpl).
+ */
+public interface PackageJsonRepository {
+
+    /**
+     * JSON do pacote com os {@code eventLimit} eventos mais recentes (por event_timestamp, id)
+     * e o total de eventos, idêntico ao PackageResponseDTO de PackageService.getPackageByTrackingCode
+     * (eventos embutidos em ordem de ID).
+     *
+     * @param trackingCode código do pacote
+     * @param eventLimit máximo de eventos embutidos
+     * @return corpo UTF-8 pronto para a resposta, ou Optional.empty() se o pacote não existir
+     */
+    Optional<byte[]> findPackageJson(String trackingCode, int eventLimit);
+
+    /**
+     * Percorre todos os pacotes com código maior que {@code afterTrackingCode}, em ordem de
+     * código (eventos em ordem de ID), entregando as linhas ao writer à medida que chegam.
+     *
+     * Deve ser chamado dentro de uma transação: no PostgreSQL o fetch size só abre um cursor
+     * no servidor com autocommit desligado (senão o driver carrega o resultado inteiro).
+     *
+     * @param afterTrackingCode cursor exclusivo ("" para começar do início)
+     * @return quantidade de pacotes escritos
+     */
+    long scanPackages(String afterTrackingCode, PackageRowWriter writer);
+}
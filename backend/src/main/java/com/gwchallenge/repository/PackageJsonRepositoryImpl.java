@@ -0,0 +1,173 @@
+package com.gwchallenge.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gwchallenge.export.PackageJsonWriter;
+import com.gwchallenge.export.PackageRowWriter;
+import com.gwchallenge.model.EventStatus;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Calendar;
+import java.util.Optional;
+import java.util.TimeZone;
+
+/**
+ * Implementação de PackageJsonRepository.
+ *
+ * Uma única consulta (package LEFT JOIN event) cujas linhas são entregues direto a um
+ * PackageRowWriter: sem entidades no contexto de persistência, sem DTOs, sem listas
+ * intermediárias e sem reflexão do ObjectMapper. O formato JSON é o de PackageJsonWriter.
+ *
+ * findPackageJson: só os eventos mais recentes, então o custo não cresce com o histórico; o total
+ * é contado à parte apenas quando o limite é atingido. O JSON é montado em memória (não na
+ * resposta HTTP): a conexão é devolvida ao pool antes da escrita no socket e o mesmo byte[]
+ * pode ser entregue a requisições coalescidas.
+ *
+ * scanPackages: as linhas são lidas em lotes de {@code gw.export.fetch-size} por um cursor no
+ * servidor, então a memória não depende do tamanho da tabela. A ordem (tracking_code, id) é a
+ * do índice idx_event_tracking_id; o cursor favorece um plano que já entrega as linhas nessa
+ * ordem (sem ordenar a tabela inteira antes da primeira linha).
+ *
+ * Transação somente leitura: a sessão do Hibernate só pode ser obtida dentro de uma transação
+ * (open-in-view desligado) e a conexão fica presa só durante a consulta.
+ */
+public class PackageJsonRepositoryImpl implements PackageJsonRepository {
+
+    private static final String COLUMNS =
+            "SELECT p.tracking_code, p.client_name, p.delivery_address, " +
+            "e.id, e.event_timestamp, e.status, e.description FROM package p LEFT JOIN ";
+
+    /** Só os eventos mais recentes (índice idx_event_tracking_timestamp), embutidos em ordem de ID. */
+    private static final String FIND_SQL = COLUMNS +
+            "(SELECT id, event_timestamp, status, description, tracking_code FROM event " +
+            "WHERE tracking_code = ? ORDER BY event_timestamp DESC, id DESC LIMIT ?) e " +
+            "ON e.tracking_code = p.tracking_code WHERE p.tracking_code = ? ORDER BY e.id";
+
+    private static final String SCAN_SQL = COLUMNS +
+            "event e ON e.tracking_code = p.tracking_code WHERE p.tracking_code > ? ORDER BY p.tracking_code, e.id";
+
+    private static final String COUNT_SQL = "SELECT count(*) FROM event WHERE tracking_code = ?";
+
+    /** Pacote com poucos eventos cabe no buffer inicial sem realocação. */
+    private static final int INITIAL_BUFFER = 2048;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${gw.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<byte[]> findPackageJson(String trackingCode, int eventLimit) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(FIND_SQL)) {
+                statement.setString(1, trackingCode);
+                statement.setInt(2, eventLimit);
+                statement.setString(3, trackingCode);
+                try (ResultSet rs = statement.executeQuery()) {
+                    ByteArrayBuilder buffer = new ByteArrayBuilder(INITIAL_BUFFER);
+                    try (JsonGenerator json = objectMapper.getFactory().createGenerator(buffer)) {
+                        // Limite atingido: pode haver mais eventos do que os embutidos
+                        EventTotal total = (code, written) ->
+                                written < eventLimit ? written : countEvents(connection, code);
+                        if (writeRows(rs, PackageJsonWriter.single(json), total) == 0) {
+                            return Optional.<byte[]>empty();
+                        }
+                    } catch (IOException ex) {
+                        // Só ocorre se o buffer em memória falhar
+                        throw new UncheckedIOException(ex);
+                    }
+                    return Optional.of(buffer.toByteArray());
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public long scanPackages(String afterTrackingCode, PackageRowWriter writer) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(SCAN_SQL)) {
+                statement.setFetchSize(fetchSize);
+                statement.setString(1, afterTrackingCode);
+                try (ResultSet rs = statement.executeQuery()) {
+                    // Sem limite: todos os eventos do pacote são entregues
+                    return writeRows(rs, writer, (code, written) -> written);
+                } catch (IOException ex) {
+                    // Cliente desconectou ou a escrita falhou: encerra o cursor
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Entrega as linhas ao writer, agrupando por pacote (linhas do mesmo pacote são contíguas).
+     *
+     * @return quantidade de pacotes
+     */
+    private static long writeRows(ResultSet rs, PackageRowWriter writer, EventTotal total)
+            throws SQLException, IOException {
+        // Mesma conversão do Hibernate (hibernate.jdbc.time_zone: UTC)
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        String current = null;
+        long packages = 0;
+        long events = 0;
+        while (rs.next()) {
+            String trackingCode = rs.getString(1);
+            if (!trackingCode.equals(current)) {
+                if (current != null) {
+                    writer.endPackage(total.of(current, events));
+                }
+                writer.startPackage(trackingCode, rs.getString(2), rs.getString(3));
+                current = trackingCode;
+                packages++;
+                events = 0;
+            }
+            // LEFT JOIN: pacote sem eventos vem em uma linha com as colunas de event nulas
+            long id = rs.getLong(4);
+            if (!rs.wasNull()) {
+                writer.event(id, rs.getTimestamp(5, utc).toLocalDateTime(),
+                        EventStatus.fromCode(rs.getShort(6)), rs.getString(7));
+                events++;
+            }
+        }
+        if (current != null) {
+            writer.endPackage(total.of(current, events));
+        }
+        return packages;
+    }
+
+    private static long countEvents(Connection connection, String trackingCode) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(COUNT_SQL)) {
+            statement.setString(1, trackingCode);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /** Total de eventos de um pacote, a partir dos que foram entregues ao writer. */
+    @FunctionalInterface
+    private interface EventTotal {
+        long of(String trackingCode, long written) throws SQLException;
+    }
+}
@@ -1,11 +1,16 @@
 package com.gwchallenge.repository;
 
+import com.gwchallenge.model.EventStatus;
 import com.gwchallenge.model.Package;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -28,11 +33,15 @@ import java.util.Optional;
  * - Package: a entidade gerenciada por este repositório
  * - String: o tipo da chave primária (tracking_code)
  * 
+ * Consultas com seleção de campos (?fields=) vêm do fragmento PackageFieldsRepository;
+ * a leitura direta para JSON, do fragmento PackageJsonRepository.
+ * 
  * @Repository marca esta interface como um componente de repositório do Spring,
  * permitindo que seja injetada automaticamente em outras classes (Services, Controllers)
  */
 @Repository
-public interface PackageRepository extends JpaRepository<Package, String> {
+public interface PackageRepository extends JpaRepository<Package, String>, PackageFieldsRepository,
+        PackageJsonRepository {
 
     /**
      * Busca uma encomenda pelo código de rastreamento, carregando também seus eventos.
@@ -96,4 +105,60 @@ public interface PackageRepository extends JpaRepository<Package, String> {
      * @return true se existe uma encomenda com este tracking code, false caso contrário
      */
     boolean existsByTrackingCode(String trackingCode);
+
+    /**
+     * Deleta encomendas em um único comando SQL, retornando os códigos efetivamente removidos.
+     * 
+     * Diferente de delete(entity), não carrega a Package nem seus Events: os eventos são
+     * removidos pelo próprio banco via ON DELETE CASCADE da FK event.tracking_code.
+     * 
+     * SQL executado:
+     * DELETE FROM package WHERE tracking_code IN (...) RETURNING tracking_code
+     * 
+     * @param trackingCodes códigos a remover
+     * @return códigos que existiam e foram removidos
+     */
+    @Query(value = "DELETE FROM package WHERE tracking_code IN (:trackingCodes) RETURNING tracking_code",
+            nativeQuery = true)
+    List<String> deleteAllByTrackingCodeReturning(@Param("trackingCodes") Collection<String> trackingCodes);
+
+    /**
+     * Busca (em ordem de código, por keyset) encomendas entregues antes de uma data
+     * e sem nenhum evento posterior a ela. Usado pelo expurgo em lotes.
+     * 
+     * @param afterCode último código do lote anterior ("" no primeiro lote)
+     * @param status status de entrega (DELIVERED)
+     * @param before data de corte
+     * @param pageable tamanho do lote
+     * @return códigos de rastreamento do próximo lote
+     */
+    @Query("SELECT p.trackingCode FROM Package p WHERE p.trackingCode > :afterCode " +
+            "AND EXISTS (SELECT e.id FROM Event e WHERE e.packageEntity = p AND e.status = :status AND e.eventTimestamp < :before) " +
+            "AND NOT EXISTS (SELECT e2.id FROM Event e2 WHERE e2.packageEntity = p AND e2.eventTimestamp >= :before) " +
+            "ORDER BY p.trackingCode")
+    List<String> findTrackingCodesDeliveredBefore(@Param("afterCode") String afterCode,
+                                                  @Param("status") EventStatus status,
+                                                  @Param("before") LocalDateTime before,
+                                                  Pageable pageable);
+
+    /**
+     * Códigos de rastreio em ordem, a partir de um cursor (keyset).
+     * Usado para carregar o filtro de códigos existentes sem trazer as entidades.
+     *
+     * @param afterCode último código da página anterior ("" na primeira página)
+     * @param pageable tamanho da página
+     * @return códigos em ordem crescente
+     */
+    @Query("SELECT p.trackingCode FROM Package p WHERE p.trackingCode > :afterCode ORDER BY p.trackingCode")
+    List<String> findTrackingCodesAfter(@Param("afterCode") String afterCode, Pageable pageable);
+
+    /**
+     * Reserva o próximo bloco de códigos de rastreio (hi/lo, migration 009).
+     * Cada valor da sequence corresponde a TrackingCodeGenerator.BLOCK_SIZE códigos;
+     * nextval não participa da transação, então blocos nunca são reutilizados.
+     *
+     * @return número do bloco (hi)
+     */
+    @Query(value = "SELECT nextval('tracking_code_block_seq')", nativeQuery = true)
+    Long nextTrackingCodeBlock();
 }
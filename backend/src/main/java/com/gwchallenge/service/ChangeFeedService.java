@@ -0,0 +1,296 @@
+package com.gwchallenge.service;
+
+import com.gwchallenge.cluster.ClusterBus;
+import com.gwchallenge.cluster.ClusterChangeEvent;
+import com.gwchallenge.dto.ChangeFeedDTO;
+import com.gwchallenge.dto.ChangeFeedEntryDTO;
+import com.gwchallenge.model.ChangeFeedEntry;
+import com.gwchallenge.model.ChangeType;
+import com.gwchallenge.model.Event;
+import com.gwchallenge.repository.ChangeFeedRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço do feed de alterações (change feed).
+ *
+ * Responsabilidades:
+ * - Registrar alterações (criações e tombstones) na mesma transação da escrita
+ * - Ler o feed por keyset a partir do cursor, só até a marca d'água de visibilidade
+ *   (pg_snapshot_xmin): escritores não se serializam entre si, e o leitor não entrega
+ *   uma alteração enquanto uma transação mais antiga ainda pode confirmar antes dela
+ * - Long-poll: consumidores sem novidades aguardam até a próxima alteração
+ *   (ou até o timeout) sem ocupar uma thread do Tomcat, via DeferredResult
+ *
+ * O aviso aos consumidores em espera é local ao nó. Com o ClusterBus ativo, alterações
+ * confirmadas em outros nós também acordam os consumidores deste nó; sem ele, eles
+ * recebem a alteração no próximo poll (após o timeout).
+ */
+@Service
+public class ChangeFeedService {
+
+    @Autowired
+    private ChangeFeedRepository changeFeedRepository;
+
+    @Autowired
+    private ClusterBus clusterBus;
+
+    @Value("${gw.change-feed.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${gw.change-feed.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${gw.change-feed.max-wait-seconds:30}")
+    private int maxWaitSeconds;
+
+    /** Consumidores aguardando novas alterações (long-poll). */
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    /** Contador de commits no feed (detecta alterações entre a leitura e o registro do consumidor). */
+    private final AtomicLong commits = new AtomicLong();
+
+    /** Evita enfileirar várias releituras quando muitas alterações confirmam em sequência. */
+    private final AtomicBoolean pendingWakeUp = new AtomicBoolean(false);
+
+    /** Thread que refaz a leitura para os consumidores em espera após um commit. */
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "change-feed-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // ==================== GRAVAÇÃO ====================
+
+    /**
+     * Registra a criação de um evento (com snapshot dos dados).
+     */
+    @Transactional
+    public void recordEventCreated(Event event, String trackingCode) {
+        ChangeFeedEntry entry = new ChangeFeedEntry(ChangeType.EVENT_CREATED, trackingCode);
+        entry.setEventId(event.getId());
+        entry.setStatus(event.getStatus());
+        entry.setEventTimestamp(event.getEventTimestamp());
+        entry.setDescription(event.getDescription());
+        append(entry);
+    }
+
+    /**
+     * Registra o tombstone de um evento removido.
+     */
+    @Transactional
+    public void recordEventDeleted(Long eventId, String trackingCode) {
+        ChangeFeedEntry entry = new ChangeFeedEntry(ChangeType.EVENT_DELETED, trackingCode);
+        entry.setEventId(eventId);
+        append(entry);
+    }
+
+    /**
+     * Registra a criação ou remoção (tombstone) de um pacote.
+     */
+    @Transactional
+    public void recordPackageChange(ChangeType type, String trackingCode) {
+        append(new ChangeFeedEntry(type, trackingCode));
+    }
+
+    /**
+     * Registra a mesma alteração para vários pacotes (criação em lote), com um único INSERT.
+     */
+    @Transactional
+    public void recordPackageChanges(ChangeType type, List<String> trackingCodes) {
+        if (trackingCodes.isEmpty()) {
+            return;
+        }
+        changeFeedRepository.insertPackageChanges(type.name(), trackingCodes, LocalDateTime.now());
+        clusterBus.publishChange();
+        wakeUpAfterCommit();
+    }
+
+    /**
+     * Grava a linha no feed (o txid da transação é gravado pelo DEFAULT da coluna).
+     */
+    private void append(ChangeFeedEntry entry) {
+        changeFeedRepository.save(entry);
+        clusterBus.publishChange();
+        wakeUpAfterCommit();
+    }
+
+    /**
+     * Após o commit, avisa os consumidores em espera (long-poll).
+     */
+    private void wakeUpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    commits.incrementAndGet();
+                    wakeUpWaiters();
+                }
+            });
+        }
+    }
+
+    // ==================== LEITURA ====================
+
+    /**
+     * Lê as alterações posteriores ao cursor.
+     *
+     * Só entrega alterações de transações abaixo de pg_snapshot_xmin: uma alteração
+     * confirmada enquanto uma transação mais antiga ainda está aberta aparece na leitura
+     * seguinte ao término dela (ver ChangeFeedRepository.findAfter).
+     *
+     * @param after último seq consumido (0 para ler desde o início)
+     * @param limit máximo de alterações (limitado por gw.change-feed.max-limit)
+     * @return ChangeFeedDTO com as alterações e o próximo cursor
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedDTO read(long after, Integer limit) {
+        int pageSize = resolveLimit(limit);
+        List<ChangeFeedEntry> rows = changeFeedRepository
+                .findAfter(after, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        long cursor = rows.isEmpty() ? after : rows.get(rows.size() - 1).getSeq();
+
+        List<ChangeFeedEntryDTO> entries = rows.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new ChangeFeedDTO(entries, cursor, hasMore);
+    }
+
+    /**
+     * Long-poll: responde imediatamente se houver alterações; caso contrário,
+     * aguarda até {@code waitSeconds} pela próxima alteração.
+     *
+     * @param after último seq consumido
+     * @param limit máximo de alterações
+     * @param waitSeconds tempo máximo de espera (0 = sem espera)
+     * @return DeferredResult completado com o ChangeFeedDTO
+     */
+    public DeferredResult<ChangeFeedDTO> poll(long after, Integer limit, int waitSeconds) {
+        int wait = Math.max(0, Math.min(waitSeconds, maxWaitSeconds));
+        long commitsBeforeRead = commits.get();
+        ChangeFeedDTO current = read(after, limit);
+
+        DeferredResult<ChangeFeedDTO> result = new DeferredResult<>(wait * 1000L);
+        if (!current.getEntries().isEmpty() || wait == 0) {
+            result.setResult(current);
+            return result;
+        }
+
+        Waiter waiter = new Waiter(after, limit, result);
+        result.onTimeout(() -> result.setResult(current));
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+
+        // Uma alteração pode ter confirmado entre a leitura e o registro do consumidor
+        if (commits.get() != commitsBeforeRead) {
+            wakeUpWaiters();
+        }
+        return result;
+    }
+
+    /**
+     * Após o commit de uma alteração, refaz a leitura para todos os consumidores em espera.
+     * Consumidores com o mesmo cursor/limite compartilham a mesma consulta.
+     */
+    private void wakeUpWaiters() {
+        if (waiters.isEmpty() || !pendingWakeUp.compareAndSet(false, true)) {
+            return;
+        }
+        notifier.execute(() -> {
+            pendingWakeUp.set(false);
+            Map<String, ChangeFeedDTO> byCursor = new HashMap<>();
+            for (Waiter waiter : new ArrayList<>(waiters)) {
+                if (waiter.result.isSetOrExpired()) {
+                    waiters.remove(waiter);
+                    continue;
+                }
+                try {
+                    ChangeFeedDTO dto = byCursor.computeIfAbsent(waiter.after + ":" + waiter.limit,
+                            k -> read(waiter.after, waiter.limit));
+                    if (!dto.getEntries().isEmpty()) {
+                        waiter.result.setResult(dto);
+                    }
+                } catch (RuntimeException ex) {
+                    waiter.result.setErrorResult(ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Alterações confirmadas em outros nós (ClusterBus): refaz a leitura dos consumidores em espera.
+     */
+    @EventListener
+    public void onClusterChange(ClusterChangeEvent event) {
+        commits.incrementAndGet();
+        wakeUpWaiters();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifier.shutdownNow();
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultLimit;
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    private ChangeFeedEntryDTO convertToDTO(ChangeFeedEntry entry) {
+        ChangeFeedEntryDTO dto = new ChangeFeedEntryDTO();
+        dto.setSeq(entry.getSeq());
+        dto.setType(entry.getChangeType());
+        dto.setTrackingCode(entry.getTrackingCode());
+        dto.setEventId(entry.getEventId());
+        dto.setStatus(entry.getStatus());
+        dto.setEventTimestamp(entry.getEventTimestamp());
+        dto.setDescription(entry.getDescription());
+        dto.setRecordedAt(entry.getRecordedAt());
+        return dto;
+    }
+
+    /**
+     * Consumidor aguardando novas alterações.
+     */
+    private static final class Waiter {
+        private final long after;
+        private final Integer limit;
+        private final DeferredResult<ChangeFeedDTO> result;
+
+        private Waiter(long after, Integer limit, DeferredResult<ChangeFeedDTO> result) {
+            this.after = after;
+            this.limit = limit;
+            this.result = result;
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package com.gwchallenge.service;
 
+import com.gwchallenge.concurrency.SingleFlight;
 import com.gwchallenge.dto.CreateEventDTO;
+import com.gwchallenge.dto.EventField;
+import com.gwchallenge.dto.EventPageDTO;
 import com.gwchallenge.dto.EventResponseDTO;
+import com.gwchallenge.dto.TimelineSyncDTO;
+import com.gwchallenge.exception.BusinessException;
+import com.gwchallenge.exception.DataIntegrityErrors;
 import com.gwchallenge.exception.ResourceNotFoundException;
 import com.gwchallenge.model.Event;
+import com.gwchallenge.model.EventStatus;
 import com.gwchallenge.model.Package;
 import com.gwchallenge.repository.EventRepository;
 import com.gwchallenge.repository.PackageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -36,13 +54,64 @@ public class EventService {
     @Autowired
     private PackageRepository packageRepository;
 
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private StuckPackageDetector stuckPackageDetector;
+
+    @Autowired
+    private TrackingCodeFilter trackingCodeFilter;
+
+    /**
+     * Máximo de eventos devolvidos por chamada de sincronização incremental.
+     * Se houver mais, a resposta vem com hasMore=true e o cliente continua pelo cursor.
+     */
+    @Value("${gw.timeline.sync-max-events:500}")
+    private int syncMaxEvents;
+
+    /** Tamanho padrão e máximo da página da linha do tempo (?limit= / ?before=). */
+    @Value("${gw.timeline.page-default-limit:100}")
+    private int timelineDefaultLimit;
+
+    @Value("${gw.timeline.page-max-limit:1000}")
+    private int timelineMaxLimit;
+
+    /** Tamanho padrão e máximo da página de /api/events/search. */
+    @Value("${gw.search.default-limit:100}")
+    private int searchDefaultLimit;
+
+    @Value("${gw.search.max-limit:1000}")
+    private int searchMaxLimit;
+
+    /** Janela usada quando o cliente não informa {@code from}: as últimas N horas antes de {@code to}. */
+    @Value("${gw.search.default-window-hours:24}")
+    private long searchDefaultWindowHours;
+
+    /** Coalescência de leituras simultâneas da linha do tempo do mesmo pacote (ver SingleFlight). */
+    @Value("${gw.single-flight.enabled:true}")
+    private boolean singleFlightEnabled;
+
+    @Value("${gw.single-flight.timeout-ms:2000}")
+    private long singleFlightTimeoutMillis;
+
+    private SingleFlight<String, List<EventResponseDTO>> timelineLoads;
+
+    @PostConstruct
+    public void init() {
+        timelineLoads = new SingleFlight<>(singleFlightTimeoutMillis);
+    }
+
     /**
      * Cria um novo evento para um pacote específico.
      * 
      * Fluxo:
-     * 1. Valida se o pacote existe
-     * 2. Cria entidade Event a partir do DTO
-     * 3. Salva no banco de dados
+     * 1. Cria entidade Event a partir do DTO, ligada a uma referência (proxy) do pacote
+     * 2. Salva no banco de dados: um único INSERT, sem SELECT do pacote
+     * 3. Pacote inexistente → violação da FK event.tracking_code → ResourceNotFoundException
      * 4. ✅ Converte para EventResponseDTO (sem referência circular)
      * 5. Retorna DTO para o Controller
      * 
@@ -57,11 +126,8 @@ public class EventService {
         System.out.println("[EventService] Criando evento para pacote: " + trackingCode);
         System.out.println("[EventService] Dados recebidos: " + dto);
 
-        // Busca o pacote no banco de dados
-        // Se não existir, lança exceção ResourceNotFoundException
-        Package pkg = packageRepository.findByTrackingCode(trackingCode)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Pacote com código '" + trackingCode + "' não encontrado"));
+        // Referência ao pacote sem consultá-lo (só a chave é usada no INSERT)
+        Package pkg = packageRepository.getReferenceById(trackingCode);
 
         // Cria nova entidade Event
         Event event = new Event();
@@ -70,24 +136,64 @@ public class EventService {
         event.setEventTimestamp(dto.getEventTimestampAsLocalDateTime());
         event.setPackageEntity(pkg); // Estabelece relacionamento ManyToOne
 
-        // Salva evento no banco de dados
-        Event savedEvent = eventRepository.save(event);
+        // Salva evento no banco de dados (id IDENTITY: o INSERT é executado aqui)
+        // A existência do pacote é garantida pela FK, não por um SELECT prévio
+        Event savedEvent;
+        try {
+            savedEvent = eventRepository.save(event);
+        } catch (DataIntegrityViolationException ex) {
+            if (DataIntegrityErrors.hasSqlState(ex, DataIntegrityErrors.FOREIGN_KEY_VIOLATION)) {
+                throw new ResourceNotFoundException(
+                        "Pacote com código '" + trackingCode + "' não encontrado");
+            }
+            throw ex;
+        }
 
         System.out.println("[EventService] ✅ Evento salvo com ID: " + savedEvent.getId());
 
+        // Registra a alteração no feed (mesma transação: só aparece se o evento for confirmado)
+        changeFeedService.recordEventCreated(savedEvent, trackingCode);
+
+        // Notificação para parceiros (OUT_FOR_DELIVERY/DELIVERED) gravada na outbox;
+        // a entrega HTTP acontece depois, fora desta transação (WebhookRelay)
+        outboxService.enqueue(savedEvent, trackingCode);
+
+        // Atualiza o índice de prazos do detector de pacotes parados (após o commit)
+        stuckPackageDetector.recordEvent(trackingCode, savedEvent.getStatus(), savedEvent.getEventTimestamp());
+
         // ✅ CRÍTICO: Converte entidade JPA para DTO ANTES de retornar
-        // Isso evita o StackOverflowError ao serializar a resposta JSON
-        return convertToDTO(savedEvent);
+        // Usa o código recebido: ler do proxy poderia inicializá-lo (SELECT)
+        return convertToDTO(savedEvent, trackingCode);
     }
 
     /**
      * Busca todos os eventos de um pacote específico, ordenados por data decrescente.
      * 
+     * Requisições simultâneas para o mesmo código compartilham uma única carga
+     * (ver PackageService.getPackageByTrackingCode); códigos que o TrackingCodeFilter
+     * garante não existirem nem chegam ao banco.
+     * 
      * @param trackingCode Código de rastreio do pacote
      * @return Lista de EventResponseDTO
      * @throws ResourceNotFoundException se o pacote não existir
      */
     public List<EventResponseDTO> getEventsByTrackingCode(String trackingCode) {
+        if (trackingCodeFilter.isDefinitelyAbsent(trackingCode)) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+        if (!singleFlightEnabled) {
+            return loadEvents(trackingCode);
+        }
+        return timelineLoads.execute(trackingCode, () -> loadEvents(trackingCode));
+    }
+
+    /**
+     * Sem transação no método público (ver PackageService.loadPackage): cada consulta
+     * devolve o resultado completo e o trackingCode vem da FK do evento (o proxy do
+     * pacote não é inicializado).
+     */
+    private List<EventResponseDTO> loadEvents(String trackingCode) {
         // Valida se o pacote existe antes de buscar eventos
         if (!packageRepository.existsByTrackingCode(trackingCode)) {
             throw new ResourceNotFoundException(
@@ -99,9 +205,198 @@ public class EventService {
                 .findByPackageEntity_TrackingCodeOrderByEventTimestampDesc(trackingCode);
 
         // ✅ Converte lista de entidades para DTOs usando Stream API
+        // (imutável: a mesma lista pode ser entregue a várias requisições coalescidas)
         return events.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Linha do tempo de um pacote paginada por keyset, do evento mais recente para o mais antigo
+     * (mesma ordem de getEventsByTrackingCode, com desempate por ID).
+     * 
+     * A página seguinte continua a partir do (event_timestamp, id) do último evento devolvido,
+     * pelo índice idx_event_tracking_timestamp: o custo de cada página não depende do tamanho
+     * do histórico nem de quantas páginas já foram lidas.
+     * 
+     * A existência do pacote só é consultada quando a página vem vazia.
+     * 
+     * @param trackingCode Código de rastreio do pacote
+     * @param limit Tamanho da página (null = padrão; limitado ao máximo configurado)
+     * @param before nextCursor da página anterior (null = primeira página)
+     * @return EventPageDTO com os eventos e o cursor da próxima página
+     * @throws BusinessException se o cursor for inválido
+     * @throws ResourceNotFoundException se o pacote não existir
+     */
+    @Transactional(readOnly = true)
+    public EventPageDTO getEventPage(String trackingCode, Integer limit, String before) {
+        if (trackingCodeFilter.isDefinitelyAbsent(trackingCode)) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, timelineMaxLimit)) : timelineDefaultLimit;
+
+        // Busca um evento a mais que o limite para saber se ainda há continuação
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<EventResponseDTO> events;
+        if (before == null) {
+            events = eventRepository.findRecentResponses(trackingCode, page);
+        } else {
+            String[] position = decodeCursor(before);
+            events = eventRepository.findResponsesBefore(trackingCode,
+                    LocalDateTime.parse(position[0]), Long.parseLong(position[1]), page);
+        }
+
+        if (events.isEmpty() && !packageRepository.existsByTrackingCode(trackingCode)) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+
+        boolean hasMore = events.size() > pageSize;
+        if (hasMore) {
+            events = events.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            EventResponseDTO last = events.get(events.size() - 1);
+            nextCursor = encodeCursor(last.getEventTimestamp(), last.getId());
+        }
+
+        return new EventPageDTO(events, nextCursor, hasMore);
+    }
+
+    /**
+     * Busca só os campos pedidos dos eventos de um pacote ({@code ?fields=status,eventTimestamp}),
+     * na mesma ordem de getEventsByTrackingCode. As colunas são selecionadas na própria
+     * consulta, sem carregar as entidades.
+     * 
+     * A existência do pacote só é consultada quando não há eventos.
+     * 
+     * @param trackingCode Código de rastreio do pacote
+     * @param fields Campos separados por vírgula (ver EventField)
+     * @return Um mapa campo → valor por evento
+     * @throws BusinessException se algum campo for inválido
+     * @throws ResourceNotFoundException se o pacote não existir
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getEventFieldsByTrackingCode(String trackingCode, String fields) {
+        Set<EventField> selected = EventField.parse(fields);
+        if (trackingCodeFilter.isDefinitelyAbsent(trackingCode)) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+
+        List<Map<String, Object>> events = eventRepository.findEventFields(selected, trackingCode);
+        if (events.isEmpty() && !packageRepository.existsByTrackingCode(trackingCode)) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+        return events;
+    }
+
+    /**
+     * Sincronização incremental: retorna apenas os eventos posteriores ao cursor.
+     *
+     * - sinceId: devolve eventos com ID maior que o informado (keyset em (tracking_code, id))
+     * - since: devolve eventos com timestamp posterior (usado quando o cliente ainda não tem cursor)
+     *
+     * A existência do pacote só é consultada quando não há eventos novos,
+     * para diferenciar "nada mudou" de "pacote inexistente" sem custar uma query a mais no caso comum.
+     *
+     * @param trackingCode Código de rastreio do pacote
+     * @param sinceId Último ID conhecido pelo cliente (pode ser null)
+     * @param since Data/hora de corte, usada apenas se sinceId for null
+     * @return TimelineSyncDTO com os eventos novos e o próximo cursor
+     * @throws ResourceNotFoundException se o pacote não existir
+     */
+    @Transactional(readOnly = true)
+    public TimelineSyncDTO getEventsSince(String trackingCode, Long sinceId, LocalDateTime since) {
+        // Busca um evento a mais que o limite para saber se ainda há continuação
+        PageRequest page = PageRequest.of(0, syncMaxEvents + 1);
+        List<Event> events = sinceId != null
+                ? eventRepository.findByPackageEntity_TrackingCodeAndIdGreaterThanOrderByIdAsc(trackingCode, sinceId, page)
+                : eventRepository.findByPackageEntity_TrackingCodeAndEventTimestampAfterOrderByIdAsc(trackingCode, since, page);
+
+        if (events.isEmpty() && !packageRepository.existsByTrackingCode(trackingCode)) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+
+        boolean hasMore = events.size() > syncMaxEvents;
+        if (hasMore) {
+            events = events.subList(0, syncMaxEvents);
+        }
+
+        // Sem eventos novos, o cursor permanece o mesmo enviado pelo cliente
+        Long cursor = events.isEmpty() ? sinceId : events.get(events.size() - 1).getId();
+
+        List<EventResponseDTO> eventDTOs = events.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return new TimelineSyncDTO(trackingCode, eventDTOs, cursor, hasMore);
+    }
+
+    /**
+     * Busca eventos de todos os pacotes por status e janela de tempo,
+     * do mais recente para o mais antigo, com paginação por keyset.
+     *
+     * A página seguinte continua a partir do (event_timestamp, id) do último evento
+     * devolvido, então o custo de cada página não depende de quantas já foram lidas
+     * (diferente de OFFSET) e inserções concorrentes não duplicam nem pulam eventos.
+     *
+     * @param status Status dos eventos (null = qualquer status)
+     * @param from Início da janela, inclusivo (null = {@code to} menos a janela padrão)
+     * @param to Fim da janela, exclusivo (null = agora)
+     * @param limit Tamanho da página (null = padrão; limitado ao máximo configurado)
+     * @param cursor nextCursor da página anterior (null = primeira página)
+     * @return EventPageDTO com os eventos e o cursor da próxima página
+     * @throws BusinessException se a janela ou o cursor forem inválidos
+     */
+    @Transactional(readOnly = true)
+    public EventPageDTO searchEvents(EventStatus status, LocalDateTime from, LocalDateTime to,
+                                     Integer limit, String cursor) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(Duration.ofHours(searchDefaultWindowHours));
+        if (!start.isBefore(end)) {
+            throw new BusinessException("'from' deve ser anterior a 'to'");
+        }
+
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, searchMaxLimit)) : searchDefaultLimit;
+
+        // Primeira página: (end, 0) seleciona event_timestamp < end
+        LocalDateTime cursorTimestamp = end;
+        long cursorId = 0L;
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            cursorTimestamp = LocalDateTime.parse(position[0]);
+            cursorId = Long.parseLong(position[1]);
+        }
+
+        // Busca um evento a mais que o limite para saber se ainda há continuação
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Event> events = status != null
+                ? eventRepository.searchByStatus(status, start, cursorTimestamp, cursorId, page)
+                : eventRepository.searchByTimeWindow(start, cursorTimestamp, cursorId, page);
+
+        boolean hasMore = events.size() > pageSize;
+        if (hasMore) {
+            events = events.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Event last = events.get(events.size() - 1);
+            nextCursor = encodeCursor(last.getEventTimestamp(), last.getId());
+        }
+
+        List<EventResponseDTO> eventDTOs = events.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+
+        return new EventPageDTO(eventDTOs, nextCursor, hasMore);
     }
 
     /**
@@ -109,6 +404,7 @@ public class EventService {
      * 
      * @return Lista de EventResponseDTO
      */
+    @Transactional(readOnly = true)
     public List<EventResponseDTO> getAllEvents() {
         // Busca todos os eventos e converte para DTOs
         return eventRepository.findAll().stream()
@@ -119,18 +415,47 @@ public class EventService {
     /**
      * Deleta um evento específico por ID.
      * 
+     * Executa um único DELETE ... RETURNING (sem SELECT prévio); o tracking code
+     * retornado alimenta o tombstone do feed de alterações.
+     * 
      * @param eventId ID do evento a ser deletado
      * @throws ResourceNotFoundException se o evento não existir
      */
     @Transactional
     public void deleteEvent(Long eventId) {
-        // Busca evento para garantir que existe
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Evento com ID '" + eventId + "' não encontrado"));
+        List<String> deleted = eventRepository.deleteByIdReturningTrackingCode(eventId);
+        if (deleted.isEmpty()) {
+            throw new ResourceNotFoundException(
+                    "Evento com ID '" + eventId + "' não encontrado");
+        }
 
-        // Deleta evento do banco de dados
-        eventRepository.delete(event);
+        // Tombstone no feed de alterações
+        changeFeedService.recordEventDeleted(eventId, deleted.get(0));
+        stuckPackageDetector.recordEventDeleted(deleted.get(0));
+    }
+
+    /**
+     * Cursor de busca e da linha do tempo: "timestamp|id" em Base64 URL-safe (opaco para o cliente).
+     * O timestamp vai em ISO completo para não perder os microssegundos do PostgreSQL.
+     */
+    private String encodeCursor(LocalDateTime timestamp, Long id) {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] position = raw.split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException(raw);
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Cursor inválido: " + cursor);
+        }
     }
 
     /**
@@ -145,15 +470,17 @@ public class EventService {
      * @return EventResponseDTO pronto para serialização JSON
      */
     private EventResponseDTO convertToDTO(Event event) {
+        // ✅ Apenas o trackingCode, NÃO o objeto Package inteiro
+        return convertToDTO(event, event.getPackageEntity().getTrackingCode());
+    }
+
+    private EventResponseDTO convertToDTO(Event event, String trackingCode) {
         EventResponseDTO dto = new EventResponseDTO();
         dto.setId(event.getId());
         dto.setEventTimestamp(event.getEventTimestamp());
         dto.setStatus(event.getStatus());
         dto.setDescription(event.getDescription());
-        
-        // ✅ Apenas o trackingCode, NÃO o objeto Package inteiro
-        dto.setTrackingCode(event.getPackageEntity().getTrackingCode());
-        
+        dto.setTrackingCode(trackingCode);
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.gwchallenge.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gwchallenge.export.ExportFormat;
+import com.gwchallenge.export.PackageCsvWriter;
+import com.gwchallenge.export.PackageJsonWriter;
+import com.gwchallenge.repository.PackageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serviço de exportação em massa dos pacotes com seus eventos.
+ *
+ * As linhas do banco vão direto para o OutputStream (cursor no servidor → writer → resposta),
+ * sem carregar a tabela em memória: o consumo é o mesmo para mil ou cem milhões de pacotes.
+ * A saída é descarregada (flush) a cada {@code flush-every} pacotes, então o cliente recebe
+ * os dados de forma contínua.
+ *
+ * Retomada: os pacotes saem em ordem de código de rastreio; uma exportação interrompida é
+ * retomada com {@code since} = código do último pacote recebido por completo.
+ *
+ * A exportação ocupa uma conexão do pool durante toda a leitura (uma única transação
+ * somente leitura, um único snapshot da consulta).
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${gw.export.flush-every:500}")
+    private int flushEvery;
+
+    /**
+     * Escreve os pacotes com código maior que {@code since} no formato pedido.
+     *
+     * @param format NDJSON ou CSV
+     * @param since código do último pacote já recebido (opcional; sem ele, desde o início)
+     * @param out destino (não é fechado)
+     * @return quantidade de pacotes exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportPackages(ExportFormat format, String since, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        String after = since != null ? since.trim() : "";
+        long packages;
+
+        if (format == ExportFormat.NDJSON) {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            packages = packageRepository.scanPackages(after, PackageJsonWriter.lineDelimited(json, flushEvery));
+            json.close(); // Descarrega o restante sem fechar out
+        } else {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            packages = packageRepository.scanPackages(after, new PackageCsvWriter(writer, flushEvery));
+            writer.flush();
+        }
+
+        log.info("Exportação {} concluída: {} pacotes em {} ms", format, packages, (System.nanoTime() - start) / 1_000_000L);
+        return packages;
+    }
+}
@@ -0,0 +1,126 @@
+package com.gwchallenge.service;
+
+import com.gwchallenge.model.Event;
+import com.gwchallenge.model.EventStatus;
+import com.gwchallenge.model.OutboxMessage;
+import com.gwchallenge.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Serviço da outbox de webhooks.
+ *
+ * Responsabilidades:
+ * - Gravar notificações na mesma transação do evento (sem chamada HTTP no caminho de escrita)
+ * - Reivindicar lotes para o relay e registrar o resultado das entregas
+ * - Calcular o backoff exponencial das novas tentativas
+ */
+@Service
+public class OutboxService {
+
+    /** Status que geram notificação para os parceiros. */
+    private static final Set<EventStatus> NOTIFIED_STATUSES =
+            EnumSet.of(EventStatus.OUT_FOR_DELIVERY, EventStatus.DELIVERED);
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    /** Endpoints dos parceiros (separados por vírgula). Vazio = webhooks desligados. */
+    @Value("${gw.webhooks.endpoints:}")
+    private String[] endpoints;
+
+    @Value("${gw.webhooks.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${gw.webhooks.backoff.initial-seconds:5}")
+    private long initialBackoffSeconds;
+
+    @Value("${gw.webhooks.backoff.max-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    /**
+     * Grava uma notificação por endpoint se o status do evento for notificável.
+     * Deve ser chamado dentro da transação que cria o evento.
+     *
+     * @param event evento recém-salvo (com ID)
+     * @param trackingCode código do pacote
+     */
+    @Transactional
+    public void enqueue(Event event, String trackingCode) {
+        if (!isEnabled() || !NOTIFIED_STATUSES.contains(event.getStatus())) {
+            return;
+        }
+        List<OutboxMessage> messages = new ArrayList<>(endpoints.length);
+        for (String endpoint : endpoints) {
+            messages.add(new OutboxMessage(endpoint.trim(), trackingCode, event));
+        }
+        outboxRepository.saveAll(messages);
+    }
+
+    /**
+     * Reivindica um lote de mensagens prontas para entrega (ver OutboxRepository.claimBatch).
+     */
+    @Transactional
+    public List<OutboxMessage> claimBatch(int batchSize, int leaseSeconds) {
+        return outboxRepository.claimBatch(batchSize, leaseSeconds);
+    }
+
+    /**
+     * Marca as mensagens como entregues.
+     */
+    @Transactional
+    public void markDelivered(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboxRepository.markDelivered(ids, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Registra uma falha de entrega: agenda nova tentativa com backoff exponencial
+     * (com jitter, para que endpoints instáveis não recebam rajadas sincronizadas)
+     * ou desiste após {@code maxAttempts}.
+     *
+     * @return número de mensagens que esgotaram as tentativas
+     */
+    @Transactional
+    public int markFailed(Collection<Long> ids, String error) {
+        int exhausted = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxMessage message : outboxRepository.findAllById(ids)) {
+            int attempts = message.getAttempts() + 1;
+            message.setAttempts(attempts);
+            message.setLastError(error);
+            if (attempts >= maxAttempts) {
+                message.setFailedAt(now);
+                exhausted++;
+            } else {
+                message.setNextAttemptAt(now.plusNanos(backoffMillis(attempts) * 1_000_000L));
+            }
+        }
+        return exhausted;
+    }
+
+    /**
+     * Atraso da próxima tentativa: initial * 2^(tentativas-1), limitado a max, com jitter de até 20%.
+     */
+    long backoffMillis(int attempts) {
+        long exponential = initialBackoffSeconds * 1000L << Math.min(attempts - 1, 30);
+        long capped = Math.min(exponential, maxBackoffSeconds * 1000L);
+        long jitter = (long) (capped * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return capped - jitter;
+    }
+
+    public boolean isEnabled() {
+        return endpoints != null && endpoints.length > 0 && !endpoints[0].isBlank();
+    }
+}
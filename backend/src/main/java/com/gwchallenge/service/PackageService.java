@@ -1,17 +1,34 @@
 package com.gwchallenge.service;
 
+import com.gwchallenge.concurrency.SingleFlight;
 import com.gwchallenge.dto.CreatePackageDTO;
 import com.gwchallenge.dto.EventResponseDTO;
+import com.gwchallenge.dto.PackageField;
 import com.gwchallenge.dto.PackageResponseDTO;
+import com.gwchallenge.exception.BusinessException;
+import com.gwchallenge.exception.ConflictException;
+import com.gwchallenge.exception.DataIntegrityErrors;
 import com.gwchallenge.exception.ResourceNotFoundException;
-import com.gwchallenge.model.Event;
+import com.gwchallenge.lookup.TrackingCodeFormat;
+import com.gwchallenge.model.ChangeType;
 import com.gwchallenge.model.Package;
+import com.gwchallenge.repository.EventRepository;
 import com.gwchallenge.repository.PackageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -28,43 +45,195 @@ public class PackageService {
     @Autowired
     private PackageRepository packageRepository;
 
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private StuckPackageDetector stuckPackageDetector;
+
+    @Autowired
+    private TrackingCodeFilter trackingCodeFilter;
+
+    @Autowired
+    private TrackingCodeGenerator trackingCodeGenerator;
+
+    /** Coalescência de leituras simultâneas do mesmo pacote (ver SingleFlight). */
+    @Value("${gw.single-flight.enabled:true}")
+    private boolean singleFlightEnabled;
+
+    @Value("${gw.single-flight.timeout-ms:2000}")
+    private long singleFlightTimeoutMillis;
+
+    /** Eventos mais recentes embutidos na busca por código (o total vem em totalEvents). */
+    @Value("${gw.timeline.package-events-limit:50}")
+    private int packageEventsLimit;
+
+    private SingleFlight<String, PackageResponseDTO> packageLoads;
+
+    private SingleFlight<String, byte[]> packageJsonLoads;
+
+    @PostConstruct
+    public void init() {
+        packageLoads = new SingleFlight<>(singleFlightTimeoutMillis);
+        packageJsonLoads = new SingleFlight<>(singleFlightTimeoutMillis);
+    }
+
     /**
      * Cria um novo pacote no sistema.
      * 
+     * Sem trackingCode e com gw.tracking-code.generator.enabled, o código é gerado
+     * pelo servidor (TrackingCodeGenerator) e devolvido na resposta.
+     * 
+     * Package é Persistable (novo até ser gravado), então o save é um INSERT direto,
+     * sem o SELECT prévio do merge. Um código já existente é detectado pela chave
+     * primária (unique_violation) e vira 409.
+     * 
      * @param dto Dados do pacote a ser criado
      * @return PackageResponseDTO com dados do pacote criado
+     * @throws ConflictException se já existir pacote com o código de rastreio
      */
     @Transactional
     public PackageResponseDTO createPackage(CreatePackageDTO dto) {
         // Cria nova entidade Package
-        Package pkg = new Package();
-        pkg.setTrackingCode(dto.getTrackingCode());
-        pkg.setClientName(dto.getClientName());
-        pkg.setDeliveryAddress(dto.getDeliveryAddress());
+        Package pkg = toEntity(dto);
 
-        // Salva no banco de dados
-        Package savedPackage = packageRepository.save(pkg);
+        // Salva no banco de dados (flush: a violação de chave aparece aqui, não no commit)
+        Package savedPackage;
+        try {
+            savedPackage = packageRepository.saveAndFlush(pkg);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateDuplicate(ex, pkg.getTrackingCode());
+        }
+
+        // Registra a alteração no feed
+        changeFeedService.recordPackageChange(ChangeType.PACKAGE_CREATED, savedPackage.getTrackingCode());
+        trackingCodeFilter.recordPackagesCreated(List.of(savedPackage.getTrackingCode()));
 
         // Converte para DTO e retorna
         return convertToDTO(savedPackage);
     }
 
+    /**
+     * Cria vários pacotes em uma única transação (tudo ou nada).
+     * 
+     * Os INSERTs vão em batch JDBC (hibernate.jdbc.batch_size) e o feed recebe um único
+     * INSERT com todas as criações. Se algum código já existir (ou se repetir no lote),
+     * nada é gravado e a resposta é 409.
+     * 
+     * @param dtos Pacotes a criar (em ordem)
+     * @return Pacotes criados, na mesma ordem
+     * @throws ConflictException se algum código de rastreio já existir ou estiver repetido
+     */
+    @Transactional
+    public List<PackageResponseDTO> createPackages(List<CreatePackageDTO> dtos) {
+        Set<String> seen = new HashSet<>();
+        List<Package> packages = new ArrayList<>(dtos.size());
+        for (CreatePackageDTO dto : dtos) {
+            Package pkg = toEntity(dto);
+            if (!seen.add(pkg.getTrackingCode())) {
+                throw new ConflictException(
+                        "Pacote com código '" + pkg.getTrackingCode() + "' repetido no lote");
+            }
+            packages.add(pkg);
+        }
+
+        try {
+            packageRepository.saveAll(packages);
+            packageRepository.flush();
+        } catch (DataIntegrityViolationException ex) {
+            throw translateDuplicate(ex, null);
+        }
+
+        List<String> trackingCodes = packages.stream()
+                .map(Package::getTrackingCode)
+                .collect(Collectors.toList());
+        changeFeedService.recordPackageChanges(ChangeType.PACKAGE_CREATED, trackingCodes);
+        trackingCodeFilter.recordPackagesCreated(trackingCodes);
+
+        return packages.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Busca um pacote específico por código de rastreio.
-     * Inclui todos os eventos associados ao pacote.
+     * Inclui os {@code package-events-limit} eventos mais recentes (em ordem de ID) e o total
+     * de eventos do pacote: o tempo de resposta não cresce com o histórico. A linha do tempo
+     * completa é paginada em EventService.getEventPage.
+     * 
+     * Requisições simultâneas para o mesmo código (ex: pacote de uma promoção relâmpago)
+     * compartilham uma única consulta: só a primeira vai ao banco, as demais recebem
+     * o mesmo DTO (ou a mesma exceção). Códigos que o TrackingCodeFilter garante
+     * não existirem nem chegam ao banco.
      * 
      * @param trackingCode Código de rastreio do pacote
      * @return PackageResponseDTO com dados completos do pacote
      * @throws ResourceNotFoundException se o pacote não existir
      */
     public PackageResponseDTO getPackageByTrackingCode(String trackingCode) {
-        // Busca pacote no banco
+        if (trackingCodeFilter.isDefinitelyAbsent(trackingCode)) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+        if (!singleFlightEnabled) {
+            return loadPackage(trackingCode);
+        }
+        return packageLoads.execute(trackingCode, () -> loadPackage(trackingCode));
+    }
+
+    /**
+     * Sem transação no método público: as requisições coalescidas aguardam o líder sem
+     * ocupar uma conexão do pool. O líder faz consultas que devolvem o resultado completo
+     * (pacote sem a coleção de eventos, eventos como DTO), então não há lazy loading fora
+     * da transação. O total só é contado quando o limite de eventos é atingido.
+     */
+    private PackageResponseDTO loadPackage(String trackingCode) {
         Package pkg = packageRepository.findByTrackingCode(trackingCode)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Pacote com código '" + trackingCode + "' não encontrado"));
 
-        // ✅ Converte para DTO (incluindo eventos)
-        return convertToDTO(pkg);
+        // Mais recentes por (event_timestamp, id); embutidos em ordem de ID, como no JSON direto
+        List<EventResponseDTO> events = new ArrayList<>(
+                eventRepository.findRecentResponses(trackingCode, PageRequest.of(0, packageEventsLimit)));
+        long totalEvents = events.size() < packageEventsLimit
+                ? events.size()
+                : eventRepository.countByPackageEntity_TrackingCode(trackingCode);
+        events.sort(Comparator.comparing(EventResponseDTO::getId));
+
+        return new PackageResponseDTO(pkg.getTrackingCode(), pkg.getClientName(),
+                pkg.getDeliveryAddress(), events, totalEvents);
+    }
+
+    /**
+     * Busca um pacote já serializado em JSON (mesmo corpo de getPackageByTrackingCode
+     * serializado pelo Jackson), sem carregar entidades nem montar DTOs: uma consulta
+     * com JOIN escrita direto no JsonGenerator (ver PackageJsonRepository).
+     * 
+     * Mesma coalescência e mesmo filtro de códigos inexistentes de getPackageByTrackingCode;
+     * as requisições coalescidas recebem o mesmo byte[] (não deve ser alterado).
+     * 
+     * @param trackingCode Código de rastreio do pacote
+     * @return Corpo JSON em UTF-8
+     * @throws ResourceNotFoundException se o pacote não existir
+     */
+    public byte[] getPackageJson(String trackingCode) {
+        if (trackingCodeFilter.isDefinitelyAbsent(trackingCode)) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+        if (!singleFlightEnabled) {
+            return loadPackageJson(trackingCode);
+        }
+        return packageJsonLoads.execute(trackingCode, () -> loadPackageJson(trackingCode));
+    }
+
+    private byte[] loadPackageJson(String trackingCode) {
+        return packageRepository.findPackageJson(trackingCode, packageEventsLimit)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Pacote com código '" + trackingCode + "' não encontrado"));
     }
 
     /**
@@ -72,26 +241,165 @@ public class PackageService {
      * 
      * @return Lista de PackageResponseDTO
      */
+    @Transactional(readOnly = true)
     public List<PackageResponseDTO> getAllPackages() {
         return packageRepository.findAll().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Busca só os campos pedidos de um pacote ({@code ?fields=trackingCode,latestStatus}).
+     * 
+     * As colunas são selecionadas na própria consulta (sem carregar a entidade) e os
+     * eventos só são lidos se {@code events} for pedido.
+     * 
+     * @param trackingCode Código de rastreio do pacote
+     * @param fields Campos separados por vírgula (ver PackageField)
+     * @return Campo → valor, na ordem de PackageField
+     * @throws BusinessException se algum campo for inválido
+     * @throws ResourceNotFoundException se o pacote não existir
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPackageFields(String trackingCode, String fields) {
+        Set<PackageField> selected = PackageField.parse(fields);
+        if (trackingCodeFilter.isDefinitelyAbsent(trackingCode)) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+
+        Map<String, Map<String, Object>> rows = packageRepository.findPackageFields(selected, trackingCode);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+        if (selected.contains(PackageField.EVENTS)) {
+            attachEvents(rows, eventRepository.findResponsesByTrackingCodes(rows.keySet()));
+        }
+        return rows.values().iterator().next();
+    }
+
+    /**
+     * Lista todos os pacotes só com os campos pedidos (ver getPackageFields).
+     * 
+     * @param fields Campos separados por vírgula (ver PackageField)
+     * @return Um mapa campo → valor por pacote, em ordem de código
+     * @throws BusinessException se algum campo for inválido
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllPackagesFields(String fields) {
+        Set<PackageField> selected = PackageField.parse(fields);
+        Map<String, Map<String, Object>> rows = packageRepository.findPackageFields(selected, null);
+        if (selected.contains(PackageField.EVENTS)) {
+            attachEvents(rows, eventRepository.findAllResponses());
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * Distribui os eventos (ordenados por pacote) entre as linhas; pacotes sem eventos
+     * recebem lista vazia, como em PackageResponseDTO.
+     */
+    private void attachEvents(Map<String, Map<String, Object>> rows, List<EventResponseDTO> events) {
+        Map<String, List<EventResponseDTO>> byPackage = events.stream()
+                .collect(Collectors.groupingBy(EventResponseDTO::getTrackingCode));
+        rows.forEach((trackingCode, row) ->
+                row.put(PackageField.EVENTS.getJsonName(), byPackage.getOrDefault(trackingCode, List.of())));
+    }
+
     /**
      * Deleta um pacote por código de rastreio.
-     * CascadeType.ALL garante que eventos associados também são deletados.
+     * 
+     * Executa um único DELETE (sem carregar o pacote nem seus eventos);
+     * os eventos são removidos pelo banco via ON DELETE CASCADE.
      * 
      * @param trackingCode Código de rastreio do pacote
      * @throws ResourceNotFoundException se o pacote não existir
      */
     @Transactional
     public void deletePackage(String trackingCode) {
-        Package pkg = packageRepository.findByTrackingCode(trackingCode)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Pacote com código '" + trackingCode + "' não encontrado"));
+        if (deletePackages(List.of(trackingCode)).isEmpty()) {
+            throw new ResourceNotFoundException(
+                    "Pacote com código '" + trackingCode + "' não encontrado");
+        }
+    }
+
+    /**
+     * Deleta vários pacotes em um único comando SQL (usado também pelo expurgo em lotes).
+     * Códigos inexistentes são ignorados.
+     * 
+     * @param trackingCodes Códigos de rastreio a remover
+     * @return Códigos efetivamente removidos
+     */
+    @Transactional
+    public List<String> deletePackages(Collection<String> trackingCodes) {
+        if (trackingCodes.isEmpty()) {
+            return List.of();
+        }
+        List<String> deleted = packageRepository.deleteAllByTrackingCodeReturning(trackingCodes);
+
+        // Tombstones no feed em um único INSERT (representam também a remoção de todos os eventos do pacote)
+        changeFeedService.recordPackageChanges(ChangeType.PACKAGE_DELETED, deleted);
+        stuckPackageDetector.recordPackagesDeleted(deleted);
+        if (!deleted.isEmpty()) {
+            trackingCodeFilter.recordPackagesDeleted();
+        }
+        return deleted;
+    }
+
+    private Package toEntity(CreatePackageDTO dto) {
+        Package pkg = new Package();
+        pkg.setTrackingCode(resolveTrackingCode(dto.getTrackingCode()));
+        pkg.setClientName(dto.getClientName());
+        pkg.setDeliveryAddress(dto.getDeliveryAddress());
+        return pkg;
+    }
+
+    /**
+     * Código informado pelo cliente ou, se omitido e o gerador estiver ativo, um código gerado.
+     * 
+     * Com o gerador ativo, o formato dos códigos gerados é reservado: o cliente não pode
+     * informá-lo (evita colisão com um código que ainda será gerado).
+     * 
+     * Com o gerador inativo, códigos nesse formato são aceitos só com o dígito verificador
+     * correto: um código com verificador inválido nunca existe no banco, e o
+     * TrackingCodeFilter pode responder 404 para ele sem consultar o banco.
+     */
+    private String resolveTrackingCode(String trackingCode) {
+        boolean blank = trackingCode == null || trackingCode.isBlank();
+        if (!trackingCodeGenerator.isEnabled()) {
+            if (blank) {
+                throw new BusinessException("Tracking code cannot be blank");
+            }
+            if (TrackingCodeFormat.isReserved(trackingCode) && !TrackingCodeFormat.isValid(trackingCode)) {
+                throw new BusinessException("Código de rastreio '" + trackingCode
+                        + "' tem o formato dos códigos gerados, mas o dígito verificador não confere");
+            }
+            return trackingCode;
+        }
+        if (blank) {
+            return trackingCodeGenerator.next();
+        }
+        if (TrackingCodeFormat.isReserved(trackingCode)) {
+            throw new BusinessException("Código de rastreio '" + trackingCode
+                    + "' usa o formato reservado aos códigos gerados pelo servidor");
+        }
+        return trackingCode;
+    }
 
-        packageRepository.delete(pkg);
+    /**
+     * Converte a violação de chave primária em 409; outras violações seguem como estão.
+     * 
+     * @param trackingCode código informado, usado quando o banco não informa a chave (pode ser null)
+     */
+    private RuntimeException translateDuplicate(DataIntegrityViolationException ex, String trackingCode) {
+        if (!DataIntegrityErrors.hasSqlState(ex, DataIntegrityErrors.UNIQUE_VIOLATION)) {
+            return ex;
+        }
+        String code = DataIntegrityErrors.keyValue(ex).orElse(trackingCode);
+        return new ConflictException(code != null
+                ? "Pacote com código '" + code + "' já existe"
+                : "Um dos pacotes do lote já existe");
     }
 
     /**
@@ -124,6 +432,7 @@ public class PackageService {
                 .collect(Collectors.toList());
 
         dto.setEvents(eventDTOs);
+        dto.setTotalEvents(eventDTOs.size());
         return dto;
     }
 }
\ No newline at end of file
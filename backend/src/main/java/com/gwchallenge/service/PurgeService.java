@@ -0,0 +1,183 @@
+package com.gwchallenge.service;
+
+import com.gwchallenge.dto.PurgeJobDTO;
+import com.gwchallenge.dto.PurgeRequestDTO;
+import com.gwchallenge.exception.BusinessException;
+import com.gwchallenge.exception.ResourceNotFoundException;
+import com.gwchallenge.model.EventStatus;
+import com.gwchallenge.repository.PackageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serviço de expurgo em lotes de pacotes e eventos.
+ *
+ * Um expurgo grande em um único DELETE travaria as tabelas e geraria um pico de WAL.
+ * Aqui ele roda em background, em lotes de {@code chunk-size} pacotes:
+ * - Cada lote é um DELETE ... IN (...) em sua própria transação (eventos via ON DELETE CASCADE)
+ * - Entre os lotes há uma pausa de {@code pause-ms}, dando espaço ao tráfego normal,
+ *   ao autovacuum e à replicação
+ * - Os lotes do critério "entregue antes de" são selecionados por keyset (tracking_code > último)
+ *
+ * Os expurgos são executados um de cada vez (fila em uma única thread). Expurgos finalizados
+ * ficam consultáveis por {@code job-retention-minutes} e depois são descartados.
+ */
+@Service
+public class PurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(PurgeService.class);
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private PackageService packageService;
+
+    @Value("${gw.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${gw.purge.pause-ms:200}")
+    private long pauseMillis;
+
+    @Value("${gw.purge.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    /** Expurgos conhecidos por este nó (consulta de andamento). */
+    private final Map<String, PurgeJobDTO> jobs = new ConcurrentHashMap<>();
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "purge-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Agenda um expurgo e retorna imediatamente.
+     *
+     * @param request critérios do expurgo
+     * @return PurgeJobDTO no estado QUEUED
+     * @throws BusinessException se nenhum critério for informado
+     */
+    public PurgeJobDTO startPurge(PurgeRequestDTO request) {
+        boolean hasCodes = request.getTrackingCodes() != null && !request.getTrackingCodes().isEmpty();
+        if (request.getDeliveredBefore() == null && !hasCodes) {
+            throw new BusinessException("Informe deliveredBefore ou trackingCodes para o expurgo");
+        }
+
+        PurgeJobDTO job = new PurgeJobDTO(UUID.randomUUID().toString());
+        jobs.put(job.getJobId(), job);
+        worker.execute(() -> run(job, request));
+
+        log.info("Expurgo agendado: {} {}", job.getJobId(), request);
+        return job;
+    }
+
+    /**
+     * Consulta o andamento de um expurgo.
+     *
+     * @throws ResourceNotFoundException se o job não existir neste nó
+     */
+    public PurgeJobDTO getJob(String jobId) {
+        PurgeJobDTO job = jobs.get(jobId);
+        if (job != null && isExpired(job, LocalDateTime.now())) {
+            jobs.remove(jobId, job);
+            job = null;
+        }
+        if (job == null) {
+            throw new ResourceNotFoundException("Expurgo '" + jobId + "' não encontrado");
+        }
+        return job;
+    }
+
+    private void run(PurgeJobDTO job, PurgeRequestDTO request) {
+        job.setState(PurgeJobDTO.State.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        try {
+            if (request.getTrackingCodes() != null && !request.getTrackingCodes().isEmpty()) {
+                purgeByCodes(job, request.getTrackingCodes());
+            }
+            if (request.getDeliveredBefore() != null) {
+                purgeDeliveredBefore(job, request.getDeliveredBefore());
+            }
+            job.setState(PurgeJobDTO.State.COMPLETED);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.setError("Expurgo interrompido");
+            job.setState(PurgeJobDTO.State.FAILED);
+        } catch (RuntimeException ex) {
+            log.error("Expurgo {} falhou", job.getJobId(), ex);
+            job.setError(ex.getMessage());
+            job.setState(PurgeJobDTO.State.FAILED);
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+            log.info("Expurgo finalizado: {}", job);
+            pruneJobs();
+        }
+    }
+
+    /**
+     * Descarta expurgos finalizados há mais de job-retention-minutes.
+     * Roda na thread do expurgo, ao fim de cada um (fora do caminho das requisições).
+     */
+    private void pruneJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> isExpired(job, now));
+    }
+
+    private boolean isExpired(PurgeJobDTO job, LocalDateTime now) {
+        return job.getFinishedAt() != null && job.getFinishedAt().plusMinutes(jobRetentionMinutes).isBefore(now);
+    }
+
+    private void purgeByCodes(PurgeJobDTO job, List<String> trackingCodes) throws InterruptedException {
+        for (int from = 0; from < trackingCodes.size(); from += chunkSize) {
+            List<String> chunk = new ArrayList<>(
+                    trackingCodes.subList(from, Math.min(from + chunkSize, trackingCodes.size())));
+            deleteChunk(job, chunk);
+            if (from + chunkSize < trackingCodes.size()) {
+                Thread.sleep(pauseMillis);
+            }
+        }
+    }
+
+    private void purgeDeliveredBefore(PurgeJobDTO job, LocalDateTime before) throws InterruptedException {
+        String afterCode = "";
+        while (true) {
+            List<String> chunk = packageRepository.findTrackingCodesDeliveredBefore(
+                    afterCode, EventStatus.DELIVERED, before, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                return;
+            }
+            deleteChunk(job, chunk);
+            if (chunk.size() < chunkSize) {
+                return;
+            }
+            afterCode = chunk.get(chunk.size() - 1);
+            Thread.sleep(pauseMillis);
+        }
+    }
+
+    private void deleteChunk(PurgeJobDTO job, List<String> chunk) {
+        List<String> deleted = packageService.deletePackages(chunk);
+        job.setDeletedPackages(job.getDeletedPackages() + deleted.size());
+        job.setChunks(job.getChunks() + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
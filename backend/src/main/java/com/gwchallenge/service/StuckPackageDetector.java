@@ -0,0 +1,435 @@
+package com.gwchallenge.service;
+
+import com.gwchallenge.cluster.ClusterChangeEvent;
+import com.gwchallenge.dto.StuckPackageDTO;
+import com.gwchallenge.model.ChangeFeedEntry;
+import com.gwchallenge.model.ChangeType;
+import com.gwchallenge.model.Event;
+import com.gwchallenge.model.EventStatus;
+import com.gwchallenge.repository.ChangeFeedRepository;
+import com.gwchallenge.repository.EventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Detector de pacotes parados (IN_TRANSIT / OUT_FOR_DELIVERY além do SLA).
+ *
+ * Em vez de varrer a tabela event periodicamente, mantém em memória um índice de prazos:
+ * - {@code tracked}: último evento de cada pacote que está em um status monitorado
+ * - {@code deadlines}: fila de prioridade por prazo (último evento + SLA do status)
+ * - {@code breaches}: pacotes cujo prazo venceu sem novo evento
+ *
+ * A verificação periódica só retira da fila os prazos vencidos, então o custo é
+ * proporcional ao número de violações, não ao número de pacotes. Entradas antigas da fila
+ * (pacote recebeu um evento depois) são descartadas ao saírem da fila (remoção preguiçosa).
+ *
+ * O índice é reconstruído do banco na inicialização (ApplicationRunner: antes de a aplicação
+ * se declarar pronta) e atualizado após o commit de cada criação/remoção de evento ou pacote.
+ * Alterações feitas em outros nós chegam pelo ClusterBus: o detector lê o feed a partir do
+ * seq da reconstrução (aplicar de novo uma alteração deste nó não muda o índice).
+ * Só os pacotes em status monitorado ocupam memória.
+ */
+@Component
+@Lazy(false)
+@Order(0) // Antes do WarmupRunner
+public class StuckPackageDetector implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StuckPackageDetector.class);
+
+    private static final List<String> EVENT_CHANGES = List.of(ChangeType.EVENT_CREATED.name(),
+            ChangeType.EVENT_DELETED.name(), ChangeType.PACKAGE_DELETED.name());
+    private static final int FEED_PAGE_SIZE = 1000;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ChangeFeedRepository changeFeedRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gw.stuck.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gw.stuck.in-transit-sla-hours:72}")
+    private long inTransitSlaHours;
+
+    @Value("${gw.stuck.out-for-delivery-sla-hours:24}")
+    private long outForDeliverySlaHours;
+
+    /** Último evento de um pacote monitorado. A identidade do objeto é a "versão" na fila. */
+    private static final class Deadline {
+        final String trackingCode;
+        final EventStatus status;
+        final LocalDateTime lastEventAt;
+        final LocalDateTime deadline;
+
+        Deadline(String trackingCode, EventStatus status, LocalDateTime lastEventAt, LocalDateTime deadline) {
+            this.trackingCode = trackingCode;
+            this.status = status;
+            this.lastEventAt = lastEventAt;
+            this.deadline = deadline;
+        }
+    }
+
+    // Estruturas protegidas por lock (ReentrantLock: seções curtas, O(log n))
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Deadline> tracked = new HashMap<>();
+    private final PriorityQueue<Deadline> deadlines =
+            new PriorityQueue<>(Comparator.comparing((Deadline d) -> d.deadline));
+    private final Map<String, Deadline> breaches = new HashMap<>();
+
+    /** Reconstrução concluída; se a primeira falhar, a verificação periódica tenta de novo. */
+    private volatile boolean rebuilt;
+    private volatile boolean rebuildAttempted;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /** Último seq do feed refletido no índice (alterações de outros nós); protegido por feedLock. */
+    private long feedSeq;
+    private final ReentrantLock feedLock = new ReentrantLock();
+
+    private Counter breachCounter;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("gw.stuck.tracked", this, d -> d.size(d.tracked))
+                .description("Pacotes monitorados pelo detector de pacotes parados")
+                .register(meterRegistry);
+        Gauge.builder("gw.stuck.breached", this, d -> d.size(d.breaches))
+                .description("Pacotes parados além do SLA")
+                .register(meterRegistry);
+        breachCounter = meterRegistry.counter("gw.stuck.breaches");
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    // ==================== ATUALIZAÇÕES (APÓS O COMMIT) ====================
+
+    /**
+     * Registra um evento criado. Aplicado só depois do commit: um rollback
+     * (ex: aquecimento) não altera o índice.
+     */
+    public void recordEvent(String trackingCode, EventStatus status, LocalDateTime eventTimestamp) {
+        afterCommit(() -> apply(trackingCode, status, eventTimestamp, true));
+    }
+
+    /**
+     * Registra a remoção de um evento: o último evento do pacote pode ter mudado,
+     * então o estado do pacote é relido do banco.
+     */
+    public void recordEventDeleted(String trackingCode) {
+        afterCommit(() -> refresh(trackingCode));
+    }
+
+    /**
+     * Registra a remoção de pacotes (remove do índice e das violações).
+     */
+    public void recordPackagesDeleted(Collection<String> trackingCodes) {
+        afterCommit(() -> remove(trackingCodes));
+    }
+
+    /**
+     * Alterações confirmadas em outros nós (ClusterBus): aplica as alterações de eventos e
+     * remoções de pacotes do feed posteriores ao último seq aplicado.
+     */
+    @EventListener
+    public void onClusterChange(ClusterChangeEvent event) {
+        if (!enabled || !rebuilt) {
+            return;
+        }
+        feedLock.lock();
+        try {
+            List<ChangeFeedEntry> entries;
+            do {
+                entries = changeFeedRepository.findAfterOfTypes(
+                        feedSeq, EVENT_CHANGES, PageRequest.of(0, FEED_PAGE_SIZE));
+                for (ChangeFeedEntry entry : entries) {
+                    switch (entry.getChangeType()) {
+                        case EVENT_CREATED:
+                            apply(entry.getTrackingCode(), entry.getStatus(), entry.getEventTimestamp(), true);
+                            break;
+                        case EVENT_DELETED:
+                            refresh(entry.getTrackingCode());
+                            break;
+                        default:
+                            remove(List.of(entry.getTrackingCode()));
+                    }
+                    feedSeq = entry.getSeq();
+                }
+            } while (entries.size() == FEED_PAGE_SIZE);
+        } catch (RuntimeException ex) {
+            // Retomado do mesmo seq na próxima notificação
+            log.warn("Falha ao ler o feed a partir do seq {}", feedSeq, ex);
+        } finally {
+            feedLock.unlock();
+        }
+    }
+
+    // ==================== CONSULTA ====================
+
+    /**
+     * Pacotes parados além do SLA, do prazo mais antigo para o mais recente.
+     * Custo proporcional ao número de violações.
+     *
+     * @param status Filtra por status (null = todos)
+     * @param limit Máximo de resultados
+     * @return Lista de StuckPackageDTO
+     */
+    public List<StuckPackageDTO> getStuckPackages(EventStatus status, int limit) {
+        if (rebuilt) {
+            fireDueDeadlines(); // Resposta não espera o próximo ciclo da verificação periódica
+        }
+
+        List<Deadline> snapshot;
+        lock.lock();
+        try {
+            snapshot = List.copyOf(breaches.values());
+        } finally {
+            lock.unlock();
+        }
+
+        return snapshot.stream()
+                .filter(d -> status == null || d.status == status)
+                .sorted(Comparator.comparing((Deadline d) -> d.deadline))
+                .limit(limit)
+                .map(d -> new StuckPackageDTO(d.trackingCode, d.status, d.lastEventAt, d.deadline))
+                .collect(Collectors.toList());
+    }
+
+    // ==================== VERIFICAÇÃO PERIÓDICA ====================
+
+    /**
+     * Retira da fila os prazos vencidos e registra as violações
+     * (intervalo configurado em gw.stuck.check-interval-ms).
+     */
+    @Scheduled(fixedDelayString = "${gw.stuck.check-interval-ms:60000}")
+    public void checkDeadlines() {
+        if (!enabled) {
+            return;
+        }
+        if (!rebuilt) {
+            // A primeira reconstrução é do ApplicationRunner (o agendador começa antes dele)
+            if (rebuildAttempted) {
+                rebuild();
+            }
+            return;
+        }
+        fireDueDeadlines();
+    }
+
+    private void fireDueDeadlines() {
+        LocalDateTime now = LocalDateTime.now();
+        lock.lock();
+        try {
+            Deadline head;
+            while ((head = deadlines.peek()) != null && !head.deadline.isAfter(now)) {
+                deadlines.poll();
+                // Entrada antiga: o pacote recebeu outro evento depois de ela entrar na fila
+                if (tracked.get(head.trackingCode) != head) {
+                    continue;
+                }
+                breaches.put(head.trackingCode, head);
+                breachCounter.increment();
+                log.warn("Pacote parado além do SLA: {} ({} desde {}, prazo {})",
+                        head.trackingCode, head.status, head.lastEventAt, head.deadline);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==================== AUXILIARES ====================
+
+    /**
+     * Carrega do banco o último evento dos pacotes em status monitorado.
+     * Falhas não impedem a aplicação de subir: a verificação periódica tenta de novo.
+     */
+    private void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        rebuildAttempted = true;
+        long start = System.nanoTime();
+        try {
+            // Lido antes do índice: alterações entre as duas leituras são reaplicadas (sem efeito)
+            long seq = changeFeedRepository.findWatermarkSeq();
+            List<Short> codes = List.of(EventStatus.IN_TRANSIT.getCode(), EventStatus.OUT_FOR_DELIVERY.getCode());
+            List<Object[]> rows = eventRepository.findLatestEventsWithStatus(codes);
+            for (Object[] row : rows) {
+                apply((String) row[0],
+                        EventStatus.fromCode(((Number) row[1]).shortValue()),
+                        ((Timestamp) row[2]).toLocalDateTime(),
+                        false);
+            }
+            feedLock.lock();
+            try {
+                feedSeq = seq;
+            } finally {
+                feedLock.unlock();
+            }
+            rebuilt = true;
+            log.info("Índice reconstruído: {} pacotes em {} ms", rows.size(), (System.nanoTime() - start) / 1_000_000L);
+        } catch (RuntimeException ex) {
+            log.warn("Falha ao reconstruir o índice; nova tentativa na próxima verificação", ex);
+            return;
+        } finally {
+            rebuilding.set(false);
+        }
+        fireDueDeadlines();
+    }
+
+    private void remove(Collection<String> trackingCodes) {
+        lock.lock();
+        try {
+            for (String trackingCode : trackingCodes) {
+                tracked.remove(trackingCode);
+                breaches.remove(trackingCode);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Relê do banco o último evento de um pacote e atualiza o índice.
+     */
+    private void refresh(String trackingCode) {
+        Optional<Event> latest = eventRepository
+                .findFirstByPackageEntity_TrackingCodeOrderByEventTimestampDescIdDesc(trackingCode);
+        lock.lock();
+        try {
+            tracked.remove(trackingCode);
+            breaches.remove(trackingCode);
+        } finally {
+            lock.unlock();
+        }
+        latest.ifPresent(event -> apply(trackingCode, event.getStatus(), event.getEventTimestamp(), false));
+    }
+
+    /**
+     * Aplica o evento se for o mais recente conhecido do pacote.
+     *
+     * @param verifyLateEvent se true e o pacote não estiver monitorado, o evento é conferido com o
+     *                        último evento do banco antes de ser monitorado: fora do índice não há
+     *                        como saber se ele é o mais recente (ex: leitura atrasada de IN_TRANSIT
+     *                        de um pacote já entregue, cujo DELIVERED tirou o pacote do índice)
+     */
+    private void apply(String trackingCode, EventStatus status, LocalDateTime eventTimestamp,
+                       boolean verifyLateEvent) {
+        Duration sla = slaFor(status);
+        LocalDateTime deadline = sla != null ? eventTimestamp.plus(sla) : null;
+
+        boolean verify = false;
+        lock.lock();
+        try {
+            Deadline current = tracked.get(trackingCode);
+            if (current != null && eventTimestamp.isBefore(current.lastEventAt)) {
+                return; // Evento fora de ordem: o último evento continua o mesmo
+            }
+            if (current != null && eventTimestamp.isEqual(current.lastEventAt) && status == current.status) {
+                return; // Mesmo evento já aplicado (ex: alteração deste nó relida do feed)
+            }
+            if (current == null && deadline != null && verifyLateEvent) {
+                verify = true;
+            } else {
+                breaches.remove(trackingCode);
+                if (deadline == null) {
+                    tracked.remove(trackingCode);
+                } else {
+                    Deadline entry = new Deadline(trackingCode, status, eventTimestamp, deadline);
+                    tracked.put(trackingCode, entry);
+                    deadlines.add(entry);
+                    compactIfNeeded();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (verify) {
+            refresh(trackingCode); // Consulta ao banco fora do lock
+        }
+    }
+
+    /** Descarta as entradas antigas quando elas passam a dominar a fila. */
+    private void compactIfNeeded() {
+        if (deadlines.size() > 2 * tracked.size() + 1024) {
+            deadlines.clear();
+            tracked.values().stream()
+                    .filter(d -> !breaches.containsKey(d.trackingCode))
+                    .forEach(deadlines::add);
+        }
+    }
+
+    private Duration slaFor(EventStatus status) {
+        switch (status) {
+            case IN_TRANSIT:
+                return Duration.ofHours(inTransitSlaHours);
+            case OUT_FOR_DELIVERY:
+                return Duration.ofHours(outForDeliverySlaHours);
+            default:
+                return null; // Status não monitorado
+        }
+    }
+
+    private double size(Map<String, Deadline> map) {
+        lock.lock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
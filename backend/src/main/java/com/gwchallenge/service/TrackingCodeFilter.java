@@ -0,0 +1,426 @@
+package com.gwchallenge.service;
+
+import com.gwchallenge.cluster.ClusterBus;
+import com.gwchallenge.cluster.ClusterChangeEvent;
+import com.gwchallenge.lookup.CuckooFilter;
+import com.gwchallenge.model.ChangeFeedEntry;
+import com.gwchallenge.model.ChangeType;
+import com.gwchallenge.repository.ChangeFeedRepository;
+import com.gwchallenge.repository.PackageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Filtro em memória dos códigos de rastreio existentes (filtro de cuckoo).
+ *
+ * Consultas por códigos inexistentes (bots, erros de digitação) são respondidas com 404
+ * sem ir ao banco quando o filtro garante a ausência. Um falso positivo apenas segue
+ * o caminho normal (consulta ao banco).
+ *
+ * Só leituras usam o filtro. Em uma transação de escrita (criação de evento, aquecimento)
+ * o banco é a fonte: a transação enxerga os próprios INSERTs ainda não confirmados, e um
+ * pacote inexistente já é detectado pela FK (DataIntegrityErrors).
+ *
+ * Construção (na inicialização, antes de a aplicação se declarar pronta):
+ * lê a marca d'água do feed de alterações e todos os códigos de rastreio em uma única
+ * transação REPEATABLE READ (mesmo snapshot), em um filtro novo, sem lock. Depois aplica
+ * o feed a partir da marca d'água e só então o filtro passa a ser usado.
+ *
+ * Atualização: o filtro acompanha o feed (PACKAGE_CREATED / PACKAGE_DELETED) a partir
+ * da marca d'água. Assim cada criação/remoção é aplicada exatamente uma vez, inclusive as feitas
+ * por outros nós (remover do filtro de cuckoo algo que não foi inserido causaria falso
+ * negativo). Criações deste nó valem logo após o commit (pendingCreates), antes de o feed
+ * entregá-las; as de outros nós chegam com a notificação do ClusterBus (ou em até
+ * {@code sync-interval-ms}). A leitura do feed nunca bloqueia a thread da requisição.
+ *
+ * Confiança: uma ausência só é aceita se o filtro estiver em dia, ou seja, se uma leitura do
+ * feed nos últimos {@code max-staleness-ms} não deixou criações para trás, e se nenhuma outra
+ * réplica puder ter criado pacotes sem este nó saber: com o ClusterBus conectado ou com
+ * {@code single-node: true}. Fora disso todas as consultas vão ao banco.
+ *
+ * Se o filtro encher, ele é desativado (todas as consultas vão ao banco) e reconstruído
+ * com mais capacidade no próximo ciclo.
+ *
+ * Com o gerador de códigos ativo, códigos no formato gerado com dígito verificador
+ * inválido também são dados como inexistentes (mesmo com o filtro desligado).
+ */
+@Component
+@Lazy(false)
+@Order(0) // Antes do WarmupRunner
+public class TrackingCodeFilter implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TrackingCodeFilter.class);
+
+    private static final List<String> PACKAGE_CHANGES =
+            List.of(ChangeType.PACKAGE_CREATED.name(), ChangeType.PACKAGE_DELETED.name());
+    private static final List<String> PACKAGE_CREATIONS = List.of(ChangeType.PACKAGE_CREATED.name());
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Autowired
+    private ChangeFeedRepository changeFeedRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TrackingCodeGenerator trackingCodeGenerator;
+
+    @Autowired
+    private ClusterBus clusterBus;
+
+    @Value("${gw.lookup-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gw.lookup-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /** Capacidade = pacotes existentes × headroom (espaço para crescer sem reconstruir). */
+    @Value("${gw.lookup-filter.headroom:1.5}")
+    private double headroom;
+
+    @Value("${gw.lookup-filter.min-capacity:100000}")
+    private long minCapacity;
+
+    @Value("${gw.lookup-filter.page-size:10000}")
+    private int pageSize;
+
+    /** Tempo máximo desde a última leitura do feed em dia para o filtro ser usado. */
+    @Value("${gw.lookup-filter.max-staleness-ms:3000}")
+    private long maxStalenessMillis;
+
+    /** Única réplica: sem ClusterBus, nenhum outro nó cria pacotes. */
+    @Value("${gw.lookup-filter.single-node:false}")
+    private boolean singleNode;
+
+    /**
+     * Filtro e a posição dele no feed. A reconstrução monta um novo e o troca inteiro.
+     */
+    private static final class FilterState {
+        final CuckooFilter filter;
+
+        /** Seq da última alteração do feed aplicada ao filtro. */
+        long lastSeq;
+
+        /**
+         * Alterações já contidas no snapshot da construção, mas posteriores à marca d'água
+         * (o feed as entrega de novo). Remover do filtro um código ausente poderia apagar a
+         * impressão digital de outro código, então não são reaplicadas.
+         */
+        final Set<Long> alreadyApplied;
+
+        FilterState(CuckooFilter filter, long lastSeq, Set<Long> alreadyApplied) {
+            this.filter = filter;
+            this.lastSeq = lastSeq;
+            this.alreadyApplied = alreadyApplied;
+        }
+    }
+
+    /** Filtro ativo; null enquanto não construído ou após encher (consultas vão ao banco). */
+    private volatile FilterState state;
+
+    /** Início da última leitura do feed que não deixou criações para trás (System.nanoTime). */
+    private volatile long caughtUpAt;
+    private volatile boolean caughtUpOnce;
+
+    /** Criações confirmadas neste nó que o feed ainda não entregou ao filtro. */
+    private final Set<String> pendingCreates = ConcurrentHashMap.newKeySet();
+
+    /** Serializa a leitura do feed (aplicação em ordem, exatamente uma vez); só tryLock. */
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final AtomicBoolean syncRequested = new AtomicBoolean();
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    private volatile boolean buildAttempted;
+
+    /** Dobra a cada vez que o filtro enche, para a reconstrução não encher de novo. */
+    private volatile double growth = 1.0;
+
+    private Counter shortCircuits;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("gw.lookup-filter.size", this, f -> {
+                    FilterState current = f.state;
+                    return current != null ? current.filter.size() : 0;
+                })
+                .description("Códigos de rastreio no filtro de consultas negativas")
+                .register(meterRegistry);
+        Gauge.builder("gw.lookup-filter.trusted", this, f -> f.state != null && f.isTrusted() ? 1 : 0)
+                .description("Filtro em dia e usado nas leituras (1) ou ignorado (0)")
+                .register(meterRegistry);
+        shortCircuits = meterRegistry.counter("gw.lookup-filter.short-circuits");
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            build();
+        }
+    }
+
+    /**
+     * Indica se o código com certeza não existe (404 sem consultar o banco).
+     * Retorna false em transações de escrita, quando o filtro está inativo ou fora de dia,
+     * ou quando o código pode existir.
+     */
+    public boolean isDefinitelyAbsent(String trackingCode) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        if (trackingCodeGenerator.isMistyped(trackingCode)) {
+            shortCircuits.increment();
+            return true;
+        }
+        FilterState current = state;
+        if (current == null || !isTrusted() || current.filter.mightContain(trackingCode)
+                || pendingCreates.contains(trackingCode)) {
+            return false;
+        }
+        shortCircuits.increment();
+        return true;
+    }
+
+    /**
+     * Chamado na transação que cria pacotes: após o commit, os códigos já valem neste nó
+     * (mesmo antes de o feed entregá-los) e o feed é lido.
+     */
+    public void recordPackagesCreated(Collection<String> trackingCodes) {
+        afterCommit(() -> {
+            pendingCreates.addAll(trackingCodes);
+            requestSync();
+        });
+    }
+
+    /**
+     * Chamado na transação que remove pacotes: após o commit, aplica o feed.
+     * Até lá o código continua no filtro (falso positivo: a consulta vai ao banco).
+     */
+    public void recordPackagesDeleted() {
+        afterCommit(this::requestSync);
+    }
+
+    /**
+     * Aplica alterações de outros nós (intervalo gw.lookup-filter.sync-interval-ms).
+     * Reconstrói o filtro se ele encheu ou se a construção inicial falhou.
+     */
+    @Scheduled(fixedDelayString = "${gw.lookup-filter.sync-interval-ms:1000}")
+    public void scheduledSync() {
+        // A primeira construção é do ApplicationRunner (o agendador começa antes dele)
+        if (!enabled || !buildAttempted) {
+            return;
+        }
+        if (state == null) {
+            build();
+        } else {
+            requestSync();
+        }
+    }
+
+    /**
+     * Alterações confirmadas em outros nós (ClusterBus): aplica o feed sem esperar o próximo ciclo.
+     */
+    @EventListener
+    public void onClusterChange(ClusterChangeEvent event) {
+        if (enabled && buildAttempted) {
+            requestSync();
+        }
+    }
+
+    // ==================== AUXILIARES ====================
+
+    /**
+     * Filtro em dia: leitura recente do feed sem criações pendentes, e nenhuma réplica
+     * que possa criar pacotes sem avisar este nó.
+     */
+    private boolean isTrusted() {
+        return caughtUpOnce
+                && (singleNode || clusterBus.isConnected())
+                && System.nanoTime() - caughtUpAt <= maxStalenessMillis * 1_000_000L;
+    }
+
+    /**
+     * Carrega todos os códigos em um filtro novo, no snapshot da marca d'água do feed.
+     * A varredura não segura syncLock; o lock só é usado para alcançar o feed e trocar o filtro.
+     */
+    private void build() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        buildAttempted = true;
+        long start = System.nanoTime();
+        try {
+            TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+            snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            snapshot.setReadOnly(true);
+
+            // Criações confirmadas até aqui estarão no snapshot (que começa na primeira consulta)
+            pendingCreates.clear();
+            FilterState built = snapshot.execute(status -> {
+                long watermark = changeFeedRepository.findWatermarkSeq();
+                Set<Long> alreadyApplied = new HashSet<>(
+                        changeFeedRepository.findVisibleSeqsAfter(watermark, PACKAGE_CHANGES));
+                long count = packageRepository.count();
+                CuckooFilter created = CuckooFilter.create(
+                        Math.max(minCapacity, (long) (count * headroom * growth)), falsePositiveRate);
+
+                String after = "";
+                List<String> page;
+                do {
+                    page = packageRepository.findTrackingCodesAfter(after, PageRequest.of(0, pageSize));
+                    for (String trackingCode : page) {
+                        if (!created.add(trackingCode)) {
+                            growth *= 2;
+                            throw new IllegalStateException("capacidade insuficiente");
+                        }
+                    }
+                    if (!page.isEmpty()) {
+                        after = page.get(page.size() - 1);
+                    }
+                } while (page.size() == pageSize);
+                return new FilterState(created, watermark, alreadyApplied);
+            });
+
+            // Alcança o feed antes de o filtro novo passar a responder
+            syncLock.lock();
+            try {
+                long caughtUpStart = System.nanoTime();
+                if (applyFeed(built)) {
+                    state = built;
+                    markCaughtUp(built, caughtUpStart);
+                    log.info("Filtro construído: {} códigos, {} KB, em {} ms", built.filter.size(),
+                            built.filter.memoryBytes() / 1024, (System.nanoTime() - start) / 1_000_000L);
+                }
+            } finally {
+                syncLock.unlock();
+            }
+        } catch (RuntimeException ex) {
+            state = null;
+            log.warn("Falha ao construir o filtro: {}", ex.getMessage());
+        } finally {
+            building.set(false);
+        }
+    }
+
+    /**
+     * Lê o feed sem bloquear: se outra thread já está lendo, ela lê de novo ao terminar.
+     */
+    private void requestSync() {
+        syncRequested.set(true);
+        while (syncRequested.get() && syncLock.tryLock()) {
+            try {
+                syncRequested.set(false);
+                FilterState current = state;
+                if (current == null) {
+                    return;
+                }
+                long start = System.nanoTime();
+                if (applyFeed(current)) {
+                    markCaughtUp(current, start);
+                }
+            } catch (RuntimeException ex) {
+                // Filtro não pode mais ser confiável (alteração pode ter sido perdida)
+                state = null;
+                log.warn("Falha ao ler o feed: {}", ex.getMessage());
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Aplica as criações/remoções de pacotes do feed posteriores ao cursor do filtro.
+     * Deve ser chamado com syncLock.
+     *
+     * @return false se o filtro encheu (desativado até a reconstrução)
+     */
+    private boolean applyFeed(FilterState target) {
+        List<ChangeFeedEntry> entries;
+        do {
+            entries = changeFeedRepository.findAfterOfTypes(
+                    target.lastSeq, PACKAGE_CHANGES, PageRequest.of(0, pageSize));
+            for (ChangeFeedEntry entry : entries) {
+                boolean created = entry.getChangeType() == ChangeType.PACKAGE_CREATED;
+                if (created) {
+                    pendingCreates.remove(entry.getTrackingCode());
+                }
+                if (!target.alreadyApplied.remove(entry.getSeq())) {
+                    if (created) {
+                        if (!target.filter.add(entry.getTrackingCode())) {
+                            if (state == target) {
+                                state = null;
+                            }
+                            growth *= 2;
+                            log.warn("Filtro cheio ({} códigos); será reconstruído", target.filter.size());
+                            return false;
+                        }
+                    } else {
+                        target.filter.remove(entry.getTrackingCode());
+                    }
+                }
+                target.lastSeq = entry.getSeq();
+            }
+        } while (entries.size() == pageSize);
+        return true;
+    }
+
+    /**
+     * Marca o filtro como em dia se nenhuma criação visível ficou para trás do cursor
+     * (confirmada, mas ainda acima da marca d'água do feed). Deve ser chamado com syncLock.
+     */
+    private void markCaughtUp(FilterState target, long readStartedAt) {
+        List<Long> heldBack = changeFeedRepository.findVisibleSeqsAfter(target.lastSeq, PACKAGE_CREATIONS);
+        if (target.alreadyApplied.containsAll(heldBack)) {
+            caughtUpAt = readStartedAt;
+            caughtUpOnce = true;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
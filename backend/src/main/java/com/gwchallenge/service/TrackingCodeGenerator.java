@@ -0,0 +1,111 @@
+package com.gwchallenge.service;
+
+import com.gwchallenge.lookup.TrackingCodeFormat;
+import com.gwchallenge.repository.PackageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gerador de códigos de rastreio no servidor (opcional, gw.tracking-code.generator.enabled).
+ *
+ * Alocação hi/lo: cada nextval de tracking_code_block_seq (migration 009) reserva um bloco
+ * de BLOCK_SIZE valores, distribuídos em memória sem lock (AtomicLong). Só a troca de bloco
+ * vai ao banco (1 a cada BLOCK_SIZE códigos), e várias instâncias geram códigos ao mesmo
+ * tempo sem coordenação por código e sem colisões.
+ *
+ * Os códigos seguem a ordem de alocação dos blocos (aproximadamente a ordem de criação),
+ * então as inserções se concentram no fim do índice da chave primária. Blocos de instâncias
+ * diferentes se intercalam, e valores de um bloco não usado até o restart são descartados.
+ *
+ * Formato e dígito verificador: ver TrackingCodeFormat.
+ */
+@Service
+public class TrackingCodeGenerator {
+
+    /**
+     * Códigos por bloco. Fixo: alterar o valor com dados existentes faria blocos novos
+     * se sobreporem aos antigos.
+     */
+    public static final long BLOCK_SIZE = 1000;
+
+    @Autowired
+    private PackageRepository packageRepository;
+
+    @Value("${gw.tracking-code.generator.enabled:false}")
+    private boolean enabled;
+
+    /** Bloco atual; substituído inteiro quando se esgota. */
+    private volatile Block block = new Block(0, 0);
+
+    /** Só uma thread busca o próximo bloco; as demais aguardam e usam o bloco novo. */
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Próximo código de rastreio.
+     *
+     * @return código no formato de TrackingCodeFormat
+     */
+    public String next() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return TrackingCodeFormat.encode(value);
+            }
+            refill(current);
+        }
+    }
+
+    /**
+     * Indica se o código tem o formato reservado aos códigos gerados, mas o dígito
+     * verificador não confere (erro de digitação).
+     *
+     * Esse código não pode existir no banco: com o gerador ativo o cliente não informa
+     * códigos no formato reservado, e com ele inativo só os aceita com o verificador
+     * correto (PackageService.resolveTrackingCode). Linhas criadas antes dessa validação
+     * não são cobertas; por isso o atalho só vale com o gerador ativo.
+     */
+    public boolean isMistyped(String trackingCode) {
+        return enabled && TrackingCodeFormat.isReserved(trackingCode) && !TrackingCodeFormat.isValid(trackingCode);
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Outra thread pode ter trocado o bloco enquanto esta aguardava
+            if (block == exhausted) {
+                long hi = packageRepository.nextTrackingCodeBlock();
+                long start = hi * BLOCK_SIZE;
+                if (start + BLOCK_SIZE - 1 > TrackingCodeFormat.MAX_VALUE) {
+                    throw new IllegalStateException("Sequence de códigos de rastreio esgotada: " + hi);
+                }
+                block = new Block(start, start + BLOCK_SIZE);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    /**
+     * Faixa [start, end) de valores reservada no banco.
+     */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
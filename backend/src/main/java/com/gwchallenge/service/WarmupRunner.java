@@ -0,0 +1,164 @@
+package com.gwchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gwchallenge.dto.CreateEventDTO;
+import com.gwchallenge.dto.CreatePackageDTO;
+import com.gwchallenge.dto.EventResponseDTO;
+import com.gwchallenge.dto.PackageResponseDTO;
+import com.gwchallenge.model.EventStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Aquecimento da JIT antes de a aplicação se declarar pronta.
+ *
+ * Logo após o deploy, PackageService/EventService, os serializers do Jackson e os planos
+ * de query do Hibernate ainda rodam interpretados, e as primeiras requisições ficam
+ * várias vezes mais lentas. Este runner executa os caminhos reais de escrita e leitura
+ * com dados sintéticos dentro de uma transação que sempre sofre rollback (nada fica gravado).
+ * A leitura cobre os dois caminhos de GET /api/packages/{trackingCode}: o JSON escrito
+ * direto das linhas do banco (getPackageJson, caso comum) e o DTO usado pelo CBOR.
+ *
+ * Por ser um ApplicationRunner, roda depois do refresh do contexto e ANTES de o Spring Boot
+ * publicar ReadinessState.ACCEPTING_TRAFFIC: enquanto aquece, /actuator/health/readiness
+ * responde OUT_OF_SERVICE e o balanceador não envia tráfego para o nó.
+ *
+ * Para quando atingir gw.warmup.iterations ou quando a latência estabilizar (platô),
+ * o que vier primeiro, respeitando gw.warmup.max-duration-ms.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    @Autowired
+    private PackageService packageService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${gw.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gw.warmup.iterations:2000}")
+    private int maxIterations;
+
+    @Value("${gw.warmup.max-duration-ms:60000}")
+    private long maxDurationMillis;
+
+    /** Tamanho da janela de iterações usada para detectar o platô de latência. */
+    @Value("${gw.warmup.plateau-window:200}")
+    private int plateauWindow;
+
+    /** Variação máxima entre duas janelas consecutivas para considerar a latência estável. */
+    @Value("${gw.warmup.plateau-tolerance:0.05}")
+    private double plateauTolerance;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        log.info("Iniciando aquecimento (máx. {} iterações)", maxIterations);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        long deadline = start + maxDurationMillis * 1_000_000L;
+
+        long firstIterationNanos = -1;
+        long windowNanos = 0;
+        double previousWindowAvg = -1;
+        double lastWindowAvg = -1;
+        int iterations = 0;
+        String stopReason = "limite de iterações";
+
+        try {
+            while (iterations < maxIterations) {
+                long iterationStart = System.nanoTime();
+                transaction.executeWithoutResult(status -> {
+                    exerciseCodePaths();
+                    status.setRollbackOnly(); // Nada do aquecimento é gravado
+                });
+                long elapsed = System.nanoTime() - iterationStart;
+                iterations++;
+
+                if (firstIterationNanos < 0) {
+                    firstIterationNanos = elapsed;
+                }
+                windowNanos += elapsed;
+
+                // Fim de janela: compara a média com a janela anterior
+                if (iterations % plateauWindow == 0) {
+                    lastWindowAvg = (double) windowNanos / plateauWindow;
+                    windowNanos = 0;
+                    if (previousWindowAvg > 0
+                            && Math.abs(lastWindowAvg - previousWindowAvg) / previousWindowAvg <= plateauTolerance) {
+                        stopReason = "latência estável";
+                        break;
+                    }
+                    previousWindowAvg = lastWindowAvg;
+                }
+                if (System.nanoTime() > deadline) {
+                    stopReason = "tempo máximo";
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Aquecimento é uma otimização: falhar aqui não pode impedir a aplicação de subir,
+            // mas a falha indica um caminho de escrita/leitura quebrado e precisa aparecer
+            log.error("Aquecimento interrompido na iteração {}: os caminhos de requisição falharam", iterations + 1, ex);
+            stopReason = "erro";
+        }
+
+        long totalMillis = (System.nanoTime() - start) / 1_000_000L;
+        log.info("Concluído em {} ms, {} iterações ({}). Primeira iteração: {} µs, média da última janela: {} µs",
+                totalMillis, iterations, stopReason, toMicros(firstIterationNanos), toMicros((long) lastWindowAvg));
+    }
+
+    /**
+     * Uma iteração: os mesmos caminhos de uma requisição real de escrita e de leitura,
+     * incluindo a serialização da resposta.
+     */
+    private void exerciseCodePaths() {
+        String trackingCode = "WARMUP-" + UUID.randomUUID();
+
+        // Escrita
+        PackageResponseDTO created = packageService.createPackage(
+                new CreatePackageDTO(trackingCode, "Warmup", "Warmup"));
+        eventService.createEvent(trackingCode,
+                new CreateEventDTO(EventStatus.IN_TRANSIT, "Warmup", "2025-01-01T00:00:00.000Z"));
+
+        // Leitura: JSON direto das linhas (PackageJsonRepository) e DTO (CBOR)
+        packageService.getPackageJson(trackingCode);
+        PackageResponseDTO pkg = packageService.getPackageByTrackingCode(trackingCode);
+        List<EventResponseDTO> events = eventService.getEventsByTrackingCode(trackingCode);
+
+        try {
+            objectMapper.writeValueAsBytes(created);
+            objectMapper.writeValueAsBytes(pkg);
+            objectMapper.writeValueAsBytes(events);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Falha ao serializar no aquecimento", ex);
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return nanos < 0 ? 0 : nanos / 1_000L;
+    }
+}
@@ -0,0 +1,62 @@
+package com.gwchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gwchallenge.dto.WebhookNotificationDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cliente HTTP que entrega um lote de notificações a um endpoint de parceiro.
+ *
+ * Usa o java.net.http.HttpClient do JDK (conexões reaproveitadas entre entregas).
+ * Qualquer resposta fora da faixa 2xx é tratada como falha.
+ */
+@Component
+public class WebhookClient {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${gw.webhooks.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMillis))
+                .build();
+    }
+
+    /**
+     * Envia as notificações em um único POST (array JSON).
+     *
+     * @param endpointUrl URL do parceiro
+     * @param notifications notificações agrupadas para este endpoint
+     * @throws IOException se a entrega falhar (erro de rede ou status não-2xx)
+     */
+    public void deliver(String endpointUrl, List<WebhookNotificationDTO> notifications)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(endpointUrl))
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(notifications)))
+                .build();
+
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Endpoint respondeu HTTP " + response.statusCode());
+        }
+    }
+}
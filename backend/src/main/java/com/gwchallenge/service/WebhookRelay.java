@@ -0,0 +1,175 @@
+package com.gwchallenge.service;
+
+import com.gwchallenge.dto.WebhookNotificationDTO;
+import com.gwchallenge.model.OutboxMessage;
+import com.gwchallenge.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Relay em background que entrega as notificações da outbox.
+ *
+ * A cada ciclo:
+ * 1. Reivindica um lote de mensagens (FOR UPDATE SKIP LOCKED + lease)
+ * 2. Agrupa por endpoint: um único POST por parceiro, com todas as suas notificações
+ * 3. Entrega os grupos em paralelo, limitado a {@code max-concurrency} requisições simultâneas
+ * 4. Marca entregues em lote; falhas voltam com backoff exponencial
+ *
+ * Métricas (Micrometer, em /actuator/metrics):
+ * - gw.outbox.pending: mensagens aguardando entrega
+ * - gw.outbox.lag: idade (segundos) da mensagem pendente mais antiga
+ * - gw.outbox.delivered / gw.outbox.failed / gw.outbox.exhausted: contadores de entrega
+ *
+ * @Lazy(false): precisa existir desde o boot mesmo com lazy-initialization (perfil prod),
+ * senão o @Scheduled nunca seria registrado.
+ */
+@Component
+@Lazy(false)
+public class WebhookRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookRelay.class);
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private WebhookClient webhookClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gw.webhooks.batch-size:200}")
+    private int batchSize;
+
+    @Value("${gw.webhooks.lease-seconds:60}")
+    private int leaseSeconds;
+
+    @Value("${gw.webhooks.max-concurrency:8}")
+    private int maxConcurrency;
+
+    /** Máximo de lotes seguidos por ciclo quando há backlog (evita monopolizar o agendador). */
+    @Value("${gw.webhooks.max-batches-per-cycle:10}")
+    private int maxBatchesPerCycle;
+
+    private ExecutorService deliveryPool;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private Counter delivered;
+    private Counter failed;
+    private Counter exhausted;
+
+    @PostConstruct
+    public void init() {
+        deliveryPool = Executors.newFixedThreadPool(maxConcurrency, r -> {
+            Thread thread = new Thread(r, "webhook-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("gw.outbox.pending", pending, AtomicLong::get)
+                .description("Notificações aguardando entrega")
+                .register(meterRegistry);
+        Gauge.builder("gw.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Idade da notificação pendente mais antiga")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        delivered = meterRegistry.counter("gw.outbox.delivered");
+        failed = meterRegistry.counter("gw.outbox.failed");
+        exhausted = meterRegistry.counter("gw.outbox.exhausted");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryPool.shutdown();
+    }
+
+    /**
+     * Ciclo do relay (intervalo configurado em gw.webhooks.poll-interval-ms).
+     */
+    @Scheduled(fixedDelayString = "${gw.webhooks.poll-interval-ms:1000}")
+    public void relay() {
+        if (!outboxService.isEnabled()) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxBatchesPerCycle; i++) {
+                List<OutboxMessage> batch = outboxService.claimBatch(batchSize, leaseSeconds);
+                if (!batch.isEmpty()) {
+                    deliverBatch(batch);
+                }
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+            refreshLagMetrics();
+        } catch (RuntimeException ex) {
+            log.error("Falha no ciclo do relay", ex);
+        }
+    }
+
+    /**
+     * Agrupa o lote por endpoint e entrega os grupos em paralelo.
+     */
+    private void deliverBatch(List<OutboxMessage> batch) {
+        Map<String, List<OutboxMessage>> byEndpoint = batch.stream()
+                .collect(Collectors.groupingBy(OutboxMessage::getEndpointUrl, LinkedHashMap::new, Collectors.toList()));
+
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>(byEndpoint.size());
+        for (Map.Entry<String, List<OutboxMessage>> entry : byEndpoint.entrySet()) {
+            deliveries.add(CompletableFuture.runAsync(() -> deliverGroup(entry.getKey(), entry.getValue()), deliveryPool));
+        }
+        CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void deliverGroup(String endpointUrl, List<OutboxMessage> messages) {
+        List<Long> ids = messages.stream().map(OutboxMessage::getId).collect(Collectors.toList());
+        List<WebhookNotificationDTO> notifications = messages.stream()
+                .map(m -> new WebhookNotificationDTO(m.getId(), m.getTrackingCode(), m.getEventId(),
+                        m.getStatus(), m.getEventTimestamp()))
+                .collect(Collectors.toList());
+        try {
+            webhookClient.deliver(endpointUrl, notifications);
+            outboxService.markDelivered(ids);
+            delivered.increment(ids.size());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            outboxService.markFailed(ids, "Entrega interrompida");
+        } catch (Exception ex) {
+            log.warn("Falha ao entregar {} notificações para {}: {}", ids.size(), endpointUrl, ex.getMessage());
+            failed.increment(ids.size());
+            exhausted.increment(outboxService.markFailed(ids, ex.getMessage()));
+        }
+    }
+
+    private void refreshLagMetrics() {
+        pending.set(outboxRepository.countPending());
+        LocalDateTime oldest = outboxRepository.findOldestPendingCreatedAt();
+        lagSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).getSeconds()));
+    }
+}
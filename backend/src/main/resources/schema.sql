@@ -4,11 +4,11 @@ CREATE TABLE package (
   delivery_address TEXT NOT NULL
 );
 
-CREATE TYPE event_status AS ENUM ('OUT_FOR_DELIVERY', 'IN_TRANSIT', 'UNDELIVERED', 'DELIVERED');
-
+-- status: código SMALLINT estável de EventStatus (1=CREATED ... 7=RETURNED)
 CREATE TABLE event (
   id SERIAL PRIMARY KEY,
-  status event_status NOT NULL,
-  event_timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  status SMALLINT NOT NULL CHECK (status BETWEEN 1 AND 7),
+  event_timestamp TIMESTAMPTZ NOT NULL DEFAULT now(),
+  description TEXT,
   tracking_code VARCHAR(50) NOT NULL REFERENCES package(tracking_code) ON DELETE CASCADE
 );
@@ -0,0 +1,81 @@
+package com.gwchallenge.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gwchallenge.dto.EventResponseDTO;
+import com.gwchallenge.dto.PackageResponseDTO;
+import com.gwchallenge.model.EventStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comparação JSON x CBOR citada no BACKEND.md (tamanhos reproduzidos aqui) e contrato
+ * do formato binário (arrays posicionais, epoch millis, status pelo código).
+ *
+ * Pacote fixo com EVENTS eventos; o JSON usa a mesma configuração do ObjectMapper do
+ * Spring Boot (datas ISO 8601, status pelo nome).
+ */
+public class BinaryFormatConfigTest {
+
+    private static final int EVENTS = 50;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper cbor = new BinaryFormatConfig().cborObjectMapper();
+
+    @Test
+    public void cborIsAboutAThirdOfTheJsonSize() throws Exception {
+        PackageResponseDTO pkg = fixture();
+
+        byte[] jsonBytes = json.writeValueAsBytes(pkg);
+        byte[] cborBytes = cbor.writeValueAsBytes(pkg);
+
+        // Valores do BACKEND.md: mudanças no formato devem atualizar os dois
+        assertEquals(7418, jsonBytes.length);
+        assertEquals(2861, cborBytes.length);
+    }
+
+    @Test
+    public void cborUsesPositionalArraysEpochMillisAndStatusCodes() throws Exception {
+        PackageResponseDTO pkg = fixture();
+
+        JsonNode root = cbor.readTree(cbor.writeValueAsBytes(pkg));
+
+        assertTrue(root.isArray());
+        assertEquals(5, root.size());
+        assertEquals(pkg.getTrackingCode(), root.get(0).asText());
+        assertEquals(EVENTS, root.get(3).size());
+        assertEquals(EVENTS, root.get(4).asLong());
+
+        EventResponseDTO first = pkg.getEvents().get(0);
+        JsonNode event = root.get(3).get(0);
+        assertEquals(first.getId().longValue(), event.get(0).asLong());
+        assertEquals(first.getEventTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli(), event.get(1).asLong());
+        assertEquals(first.getStatus().getCode(), event.get(2).asInt());
+        assertEquals(first.getDescription(), event.get(3).asText());
+        assertEquals(pkg.getTrackingCode(), event.get(4).asText());
+    }
+
+    /** Pacote fixo: EVENTS eventos de hora em hora, status em ciclo. */
+    static PackageResponseDTO fixture() {
+        String trackingCode = "GWTEST0001";
+        EventStatus[] statuses = EventStatus.values();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        List<EventResponseDTO> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(new EventResponseDTO((long) (1000 + i), start.plusHours(i), statuses[i % statuses.length],
+                    "Atualização de rastreio " + i, trackingCode));
+        }
+        return new PackageResponseDTO(trackingCode, "Cliente de Teste", "Rua das Flores, 123 - São Paulo/SP", events);
+    }
+}
@@ -0,0 +1,60 @@
+package com.gwchallenge.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Testes da ativação do modo de virtual threads: só com gw.virtual-threads.enabled=true
+ * e um JDK 21+. Em JDKs anteriores (o build e a imagem usam o 17) a opção é ignorada.
+ */
+public class VirtualThreadConfigTest {
+
+    private static final boolean JDK_HAS_VIRTUAL_THREADS = Runtime.version().feature() >= 21;
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Test
+    public void offByDefault() {
+        contextRunner.run(context -> assertThat(context)
+                .hasNotFailed()
+                .doesNotHaveBean(VirtualThreadConfig.class)
+                .doesNotHaveBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME));
+    }
+
+    @Test
+    public void enabledFlagIsIgnoredWithoutVirtualThreads() {
+        assumeTrue(!JDK_HAS_VIRTUAL_THREADS, "JDK com virtual threads");
+
+        assertThat(VirtualThreadConfig.newVirtualThreadExecutor("gw-vt-test-")).isNull();
+        contextRunner.withPropertyValues("gw.virtual-threads.enabled=true")
+                .run(context -> assertThat(context)
+                        .hasNotFailed()
+                        .doesNotHaveBean(VirtualThreadConfig.class)
+                        .doesNotHaveBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME));
+    }
+
+    @Test
+    public void enabledFlagRunsTasksOnVirtualThreadsOnJdk21() throws Exception {
+        assumeTrue(JDK_HAS_VIRTUAL_THREADS, "JDK sem virtual threads (requer 21+)");
+
+        ExecutorService executor = VirtualThreadConfig.newVirtualThreadExecutor("gw-vt-test-");
+        try {
+            String name = executor.submit(() -> Thread.currentThread().toString()).get();
+            assertThat(name).startsWith("VirtualThread").contains("gw-vt-test-0");
+        } finally {
+            executor.shutdown();
+        }
+        contextRunner.withPropertyValues("gw.virtual-threads.enabled=true")
+                .run(context -> assertThat(context)
+                        .hasNotFailed()
+                        .hasSingleBean(VirtualThreadConfig.class)
+                        .hasBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME));
+    }
+}
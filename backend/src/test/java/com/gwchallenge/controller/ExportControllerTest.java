@@ -0,0 +1,46 @@
+package com.gwchallenge.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes da negociação de gzip do ExportController (Accept-Encoding com q-values).
+ */
+public class ExportControllerTest {
+
+    @Test
+    public void gzipIsAcceptedWithPositiveQ() {
+        assertTrue(ExportController.acceptsGzip("gzip"));
+        assertTrue(ExportController.acceptsGzip("br, GZIP"));
+        assertTrue(ExportController.acceptsGzip("gzip;q=0.5, br;q=1"));
+        assertTrue(ExportController.acceptsGzip("deflate, gzip ; q=0.001"));
+        assertTrue(ExportController.acceptsGzip("x-gzip"));
+    }
+
+    @Test
+    public void gzipWithQZeroIsRefused() {
+        assertFalse(ExportController.acceptsGzip("gzip;q=0"));
+        assertFalse(ExportController.acceptsGzip("br, gzip; q=0.0"));
+        // Recusa explícita prevalece sobre o curinga
+        assertFalse(ExportController.acceptsGzip("gzip;q=0, *"));
+    }
+
+    @Test
+    public void wildcardAppliesWhenGzipIsNotListed() {
+        assertTrue(ExportController.acceptsGzip("*"));
+        assertTrue(ExportController.acceptsGzip("br, *;q=0.1"));
+        assertFalse(ExportController.acceptsGzip("br, *;q=0"));
+    }
+
+    @Test
+    public void otherCodingsDoNotEnableGzip() {
+        assertFalse(ExportController.acceptsGzip(null));
+        assertFalse(ExportController.acceptsGzip(""));
+        assertFalse(ExportController.acceptsGzip("identity"));
+        assertFalse(ExportController.acceptsGzip("br, deflate"));
+        assertFalse(ExportController.acceptsGzip("x-gzip-foo"));
+        assertFalse(ExportController.acceptsGzip("gzip;q=abc"));
+    }
+}
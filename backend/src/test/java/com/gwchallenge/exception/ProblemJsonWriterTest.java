@@ -0,0 +1,83 @@
+package com.gwchallenge.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes do ProblemJsonWriter: o byte[] montado à mão precisa ser JSON válido, com os
+ * campos de cada tipo de erro e detail/instance escapados.
+ */
+public class ProblemJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void everyProblemTypeSerializesToValidProblemJson() throws IOException {
+        for (ProblemType problem : ProblemType.values()) {
+            JsonNode body = parse(ProblemJsonWriter.serialize(problem, "detalhe", "/api/packages/GW1"));
+
+            assertEquals(problem.getType(), body.get("type").asText());
+            assertEquals(problem.getTitle(), body.get("title").asText());
+            assertEquals(problem.getStatus().value(), body.get("status").asInt());
+            assertEquals("detalhe", body.get("detail").asText());
+            assertEquals("/api/packages/GW1", body.get("instance").asText());
+            assertEquals(5, body.size());
+        }
+    }
+
+    @Test
+    public void detailAndInstanceAreEscaped() throws IOException {
+        String detail = "Código \"GW\\01\" inválido\n\t<script>\u0001 ✅";
+        String instance = "/api/packages/a\"b";
+
+        JsonNode body = parse(ProblemJsonWriter.serialize(ProblemType.BUSINESS_RULE, detail, instance));
+
+        assertEquals(detail, body.get("detail").asText());
+        assertEquals(instance, body.get("instance").asText());
+    }
+
+    @Test
+    public void missingDetailAndInstanceAreNull() throws IOException {
+        JsonNode body = parse(ProblemJsonWriter.serialize(ProblemType.INTERNAL, null, null));
+
+        assertTrue(body.get("detail").isNull());
+        assertTrue(body.get("instance").isNull());
+    }
+
+    @Test
+    public void responseEntityCarriesStatusAndProblemContentType() {
+        ResponseEntity<byte[]> response = ProblemJsonWriter.toResponse(ProblemType.CONFLICT, "duplicado", "/x");
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(ProblemJsonWriter.serialize(ProblemType.CONFLICT, "duplicado", "/x"), response.getBody());
+    }
+
+    @Test
+    public void writeFillsTheServletResponse() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ProblemJsonWriter.write(response, ProblemType.RATE_LIMITED, "Limite excedido", "/api/events");
+
+        byte[] expected = ProblemJsonWriter.serialize(ProblemType.RATE_LIMITED, "Limite excedido", "/api/events");
+        assertEquals(429, response.getStatus());
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, response.getContentType());
+        assertEquals(expected.length, response.getContentLength());
+        assertArrayEquals(expected, response.getContentAsByteArray());
+    }
+
+    private JsonNode parse(byte[] body) throws IOException {
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,88 @@
+package com.gwchallenge.export;
+
+import com.gwchallenge.model.EventStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Testes do PackageCsvWriter: linhas por evento, pacote sem eventos, escape RFC 4180 e flush.
+ */
+public class PackageCsvWriterTest {
+
+    private static final String HEADER =
+            "trackingCode,clientName,deliveryAddress,eventId,eventTimestamp,status,description\r\n";
+
+    @Test
+    public void writesOneRowPerEventRepeatingThePackageColumns() throws IOException {
+        StringWriter out = new StringWriter();
+        PackageCsvWriter csv = new PackageCsvWriter(out, 100);
+
+        csv.startPackage("GW1", "Ana", "Rua A");
+        csv.event(10, LocalDateTime.of(2025, 1, 2, 3, 4, 5), EventStatus.IN_TRANSIT, "Saiu do CD");
+        csv.event(11, LocalDateTime.of(2025, 1, 3, 8, 0, 0, 123_000_000), EventStatus.DELIVERED, null);
+        csv.endPackage(2);
+
+        assertEquals(HEADER
+                + "GW1,Ana,Rua A,10,2025-01-02T03:04:05,IN_TRANSIT,Saiu do CD\r\n"
+                + "GW1,Ana,Rua A,11,2025-01-03T08:00:00.123,DELIVERED,\r\n", out.toString());
+    }
+
+    @Test
+    public void packageWithoutEventsHasEmptyEventColumns() throws IOException {
+        StringWriter out = new StringWriter();
+        PackageCsvWriter csv = new PackageCsvWriter(out, 100);
+
+        csv.startPackage("GW2", "Bia", "Rua B");
+        csv.endPackage(0);
+
+        assertEquals(HEADER + "GW2,Bia,Rua B,,,,\r\n", out.toString());
+    }
+
+    @Test
+    public void fieldsWithSeparatorsAreQuoted() throws IOException {
+        StringWriter out = new StringWriter();
+        PackageCsvWriter csv = new PackageCsvWriter(out, 100);
+
+        csv.startPackage("GW3", "Silva, João", "Rua \"C\", 10");
+        csv.event(1, LocalDateTime.of(2025, 1, 1, 0, 0), EventStatus.OUT_FOR_DELIVERY, "linha 1\nlinha 2");
+        csv.endPackage(1);
+
+        assertEquals(HEADER
+                + "GW3,\"Silva, João\",\"Rua \"\"C\"\", 10\",1,2025-01-01T00:00:00,OUT_FOR_DELIVERY,\"linha 1\nlinha 2\"\r\n",
+                out.toString());
+    }
+
+    @Test
+    public void escapeLeavesPlainValuesUntouched() {
+        assertEquals("GW0001", PackageCsvWriter.escape("GW0001"));
+        assertEquals("", PackageCsvWriter.escape(null));
+        assertEquals("\"a\r\nb\"", PackageCsvWriter.escape("a\r\nb"));
+    }
+
+    @Test
+    public void flushesEveryNPackages() throws IOException {
+        CountingWriter out = new CountingWriter();
+        PackageCsvWriter csv = new PackageCsvWriter(out, 2);
+
+        for (int i = 0; i < 5; i++) {
+            csv.startPackage("GW" + i, "Cliente", "Endereço");
+            csv.endPackage(0);
+        }
+
+        assertEquals(2, out.flushes);
+    }
+
+    private static class CountingWriter extends StringWriter {
+        int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
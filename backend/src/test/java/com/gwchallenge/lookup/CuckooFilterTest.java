@@ -0,0 +1,113 @@
+package com.gwchallenge.lookup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes do CuckooFilter: sem falsos negativos, taxa de falso positivo e remoção.
+ */
+public class CuckooFilterTest {
+
+    @Test
+    public void insertedItemsAreAlwaysFoundUpToCapacity() {
+        CuckooFilter filter = CuckooFilter.create(100_000, 0.001);
+
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.add(code(i)), "inserção " + i);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain(code(i)), "falso negativo em " + code(i));
+        }
+        assertEquals(100_000, filter.size());
+        assertFalse(filter.isFull());
+    }
+
+    @Test
+    public void falsePositiveRateStaysNearTheConfiguredRate() {
+        CuckooFilter filter = CuckooFilter.create(50_000, 0.001);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add(code(i));
+        }
+
+        int falsePositives = 0;
+        int probes = 200_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("ABSENT" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.003, "taxa de falso positivo " + rate);
+    }
+
+    @Test
+    public void removedItemIsNoLongerFound() {
+        CuckooFilter filter = CuckooFilter.create(1_000, 0.001);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add(code(i));
+        }
+
+        assertTrue(filter.remove(code(7)));
+
+        assertFalse(filter.mightContain(code(7)));
+        assertEquals(999, filter.size());
+        for (int i = 0; i < 1_000; i++) {
+            if (i != 7) {
+                assertTrue(filter.mightContain(code(i)), "remoção apagou " + code(i));
+            }
+        }
+    }
+
+    @Test
+    public void duplicateInsertNeedsOneRemovePerAdd() {
+        CuckooFilter filter = CuckooFilter.create(100, 0.001);
+
+        filter.add("GWDUP");
+        filter.add("GWDUP");
+        assertTrue(filter.remove("GWDUP"));
+
+        assertTrue(filter.mightContain("GWDUP"));
+        assertTrue(filter.remove("GWDUP"));
+        assertFalse(filter.mightContain("GWDUP"));
+        assertFalse(filter.remove("GWDUP"));
+    }
+
+    @Test
+    public void overflowIsReportedWithoutLosingInsertedItems() {
+        CuckooFilter filter = CuckooFilter.create(8, 0.01);
+        List<String> inserted = new ArrayList<>();
+
+        int i = 0;
+        while (!filter.isFull()) {
+            String code = code(i++);
+            if (filter.add(code)) {
+                inserted.add(code);
+            }
+            assertTrue(i < 1_000, "o filtro nunca encheu");
+        }
+
+        assertFalse(filter.add("GWDEPOIS"));
+        // O item desalojado na falha fica guardado como vítima: nenhum aceito some
+        for (String code : inserted) {
+            assertTrue(filter.mightContain(code), "falso negativo em " + code);
+        }
+    }
+
+    @Test
+    public void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> CuckooFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> CuckooFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> CuckooFilter.create(100, 1));
+    }
+
+    private static String code(int i) {
+        return String.format("GW%08d", i);
+    }
+}
@@ -0,0 +1,91 @@
+package com.gwchallenge.lookup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes do TrackingCodeFormat: codificação, ordem e dígito verificador.
+ */
+public class TrackingCodeFormatTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @Test
+    public void encodesWithPrefixFixedLengthAndValidCheckDigit() {
+        String code = TrackingCodeFormat.encode(0);
+
+        assertEquals("GW0000000000", code.substring(0, TrackingCodeFormat.LENGTH - 1));
+        assertEquals(TrackingCodeFormat.LENGTH, code.length());
+        assertTrue(TrackingCodeFormat.isValid(code));
+        assertTrue(TrackingCodeFormat.isValid(TrackingCodeFormat.encode(TrackingCodeFormat.MAX_VALUE)));
+    }
+
+    @Test
+    public void increasingValuesProduceIncreasingCodes() {
+        String previous = TrackingCodeFormat.encode(0);
+        for (long value = 1; value < 5_000; value++) {
+            String code = TrackingCodeFormat.encode(value);
+            assertTrue(code.compareTo(previous) > 0, previous + " >= " + code);
+            previous = code;
+        }
+    }
+
+    @Test
+    public void anySingleCharacterChangeIsDetected() {
+        String code = TrackingCodeFormat.encode(123_456_789L);
+        for (int i = TrackingCodeFormat.PREFIX.length(); i < code.length(); i++) {
+            for (char c : ALPHABET.toCharArray()) {
+                if (c == code.charAt(i)) {
+                    continue;
+                }
+                String typo = code.substring(0, i) + c + code.substring(i + 1);
+                assertTrue(TrackingCodeFormat.isReserved(typo));
+                assertFalse(TrackingCodeFormat.isValid(typo), typo);
+            }
+        }
+    }
+
+    @Test
+    public void mostAdjacentTranspositionsAreDetected() {
+        int transpositions = 0;
+        int detected = 0;
+        for (long value = 0; value < 2_000; value++) {
+            String code = TrackingCodeFormat.encode(value * 7_919_191L);
+            for (int i = TrackingCodeFormat.PREFIX.length(); i < code.length() - 1; i++) {
+                if (code.charAt(i) == code.charAt(i + 1)) {
+                    continue;
+                }
+                char[] chars = code.toCharArray();
+                chars[i] = code.charAt(i + 1);
+                chars[i + 1] = code.charAt(i);
+                transpositions++;
+                if (!TrackingCodeFormat.isValid(new String(chars))) {
+                    detected++;
+                }
+            }
+        }
+        assertTrue(detected >= transpositions * 0.99, detected + " de " + transpositions);
+    }
+
+    @Test
+    public void reservedFormatIgnoresCheckDigit() {
+        assertTrue(TrackingCodeFormat.isReserved("GW0000000000Z"));
+        // Tamanho, prefixo ou alfabeto diferentes: código livre do cliente
+        assertFalse(TrackingCodeFormat.isReserved("GWTEST0001"));
+        assertFalse(TrackingCodeFormat.isReserved("XX00000000000"));
+        assertFalse(TrackingCodeFormat.isReserved("GW00000000I00"));
+        assertFalse(TrackingCodeFormat.isReserved("GW000000000000"));
+        assertFalse(TrackingCodeFormat.isReserved(null));
+        assertFalse(TrackingCodeFormat.isValid("GWTEST0001"));
+    }
+
+    @Test
+    public void rejectsValuesOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> TrackingCodeFormat.encode(-1));
+        assertThrows(IllegalArgumentException.class, () -> TrackingCodeFormat.encode(TrackingCodeFormat.MAX_VALUE + 1));
+    }
+}
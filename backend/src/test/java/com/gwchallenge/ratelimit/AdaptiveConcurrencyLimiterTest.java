@@ -0,0 +1,65 @@
+package com.gwchallenge.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes do limitador adaptativo de concorrência (AIMD).
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = 10_000_000L;   // 10 ms
+    private static final long SLOW = 500_000_000L;  // 500 ms (alvo: 250 ms)
+
+    @Test
+    public void rejectsWhenInFlightReachesLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 250, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(FAST);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void slowResponsesBackOffMultiplicativelyDownToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 5, 100, 250, 0.5);
+
+        acquireAndRelease(limiter, SLOW);
+        assertEquals(20.0, limiter.getLimit(), 1e-9);
+        acquireAndRelease(limiter, SLOW);
+        assertEquals(10.0, limiter.getLimit(), 1e-9);
+        for (int i = 0; i < 10; i++) {
+            acquireAndRelease(limiter, SLOW);
+        }
+        assertEquals(5.0, limiter.getLimit(), 1e-9);
+    }
+
+    @Test
+    public void fastResponsesGrowAdditivelyUpToMaximum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 12, 250, 0.5);
+
+        // +1/limite por resposta: ~10 respostas rápidas sobem o limite em 1
+        for (int i = 0; i < 10; i++) {
+            acquireAndRelease(limiter, FAST);
+        }
+        assertEquals(11.0, limiter.getLimit(), 0.1);
+
+        for (int i = 0; i < 1000; i++) {
+            acquireAndRelease(limiter, FAST);
+        }
+        assertEquals(12.0, limiter.getLimit(), 1e-9);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static void acquireAndRelease(AdaptiveConcurrencyLimiter limiter, long latencyNanos) {
+        assertTrue(limiter.tryAcquire());
+        limiter.release(latencyNanos);
+    }
+}
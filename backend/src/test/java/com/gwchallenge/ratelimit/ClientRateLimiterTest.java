@@ -0,0 +1,54 @@
+package com.gwchallenge.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes do limite de clientes (bucket de excedentes) e da limpeza de buckets ociosos.
+ */
+public class ClientRateLimiterTest {
+
+    @Test
+    public void clientsBeyondCapacityShareOverflowBucket() {
+        // 1 requisição por hora: nenhum bucket recarrega durante o teste
+        ClientRateLimiter limiter = new ClientRateLimiter(1.0 / 3600, 1, 2);
+
+        assertEquals(0L, limiter.tryAcquire("ip:1"));
+        assertEquals(0L, limiter.tryAcquire("ip:2"));
+
+        // Mapa cheio: os novos clientes dividem um único bucket
+        assertEquals(0L, limiter.tryAcquire("ip:3"));
+        assertTrue(limiter.tryAcquire("ip:4") > 0);
+        assertTrue(limiter.tryAcquire("ip:5") > 0);
+        assertEquals(2, limiter.trackedClients());
+    }
+
+    @Test
+    public void evictIdleRemovesOnlyRefilledBuckets() throws Exception {
+        ClientRateLimiter fast = new ClientRateLimiter(1000, 1, 10);
+        fast.tryAcquire("ip:1");
+        fast.tryAcquire("ip:2");
+        Thread.sleep(5); // > 1 ms: ambos recarregados
+
+        assertEquals(2, fast.evictIdle());
+        assertEquals(0, fast.trackedClients());
+
+        ClientRateLimiter slow = new ClientRateLimiter(1.0 / 3600, 1, 10);
+        slow.tryAcquire("ip:1");
+        assertEquals(0, slow.evictIdle());
+        assertEquals(1, slow.trackedClients());
+    }
+
+    @Test
+    public void evictionFreesRoomForNewClients() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(1000, 1, 1);
+        limiter.tryAcquire("ip:1");
+        Thread.sleep(5);
+        limiter.evictIdle();
+
+        assertEquals(0L, limiter.tryAcquire("ip:2"));
+        assertEquals(1, limiter.trackedClients());
+    }
+}
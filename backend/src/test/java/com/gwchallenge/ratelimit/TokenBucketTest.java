@@ -0,0 +1,54 @@
+package com.gwchallenge.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testes do TokenBucket (GCRA) com relógio controlado pelo teste.
+ */
+public class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long START = 1_000 * SECOND;
+
+    @Test
+    public void burstIsAcceptedThenRejectedWithWaitTime() {
+        TokenBucket bucket = new TokenBucket(10, 5); // 1 token a cada 100 ms
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, bucket.tryAcquire(START), "requisição " + i + " do burst");
+        }
+        long wait = bucket.tryAcquire(START);
+        assertEquals(SECOND / 10, wait);
+    }
+
+    @Test
+    public void tokensRefillAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+
+        assertEquals(0L, bucket.tryAcquire(START));
+        assertTrue(bucket.tryAcquire(START + SECOND / 20) > 0);
+        assertEquals(0L, bucket.tryAcquire(START + SECOND / 10));
+    }
+
+    @Test
+    public void idleOnlyAfterFullRefill() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        assertTrue(bucket.isIdle(START));
+
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+        assertFalse(bucket.isIdle(START + SECOND / 10));
+        assertTrue(bucket.isIdle(START + 2 * SECOND / 10));
+    }
+
+    @Test
+    public void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
@@ -0,0 +1,150 @@
+package com.gwchallenge.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Dois relays reivindicando a outbox ao mesmo tempo (OutboxRepository.claimBatch).
+ *
+ * Usa o SQL da própria anotação @Query em duas conexões: enquanto a transação da primeira
+ * está aberta (linhas travadas), a segunda não pode esperar por elas nem receber as mesmas
+ * mensagens (FOR UPDATE SKIP LOCKED). Depois do COMMIT, o lease impede uma nova reivindicação.
+ *
+ * Roda em um schema próprio (cópia de webhook_outbox) criado e removido pelo teste.
+ * Mesmo requisito de QueryPlanRegressionTest: sem PLAN_TEST_DATABASE_URL os testes são ignorados.
+ */
+public class OutboxClaimConcurrencyTest {
+
+    private static final String SCHEMA = "outbox_claim_test";
+    private static final int MESSAGES = 10;
+
+    private static String claimSql;
+    private static Connection admin;
+
+    private Connection relayA;
+    private Connection relayB;
+
+    @BeforeAll
+    public static void createSchema() throws Exception {
+        String url = System.getenv("PLAN_TEST_DATABASE_URL");
+        assumeTrue(url != null && !url.isBlank(), "PLAN_TEST_DATABASE_URL não definida");
+
+        claimSql = OutboxRepository.class.getMethod("claimBatch", int.class, int.class)
+                .getAnnotation(Query.class).value();
+        admin = connect();
+        admin.setAutoCommit(true);
+        try (Statement st = admin.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            st.execute("CREATE SCHEMA " + SCHEMA);
+            st.execute("CREATE TABLE " + SCHEMA + ".webhook_outbox (LIKE public.webhook_outbox INCLUDING ALL)");
+        }
+    }
+
+    @AfterAll
+    public static void dropSchema() throws SQLException {
+        if (admin != null) {
+            try (Statement st = admin.createStatement()) {
+                st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            }
+            admin.close();
+        }
+    }
+
+    @BeforeEach
+    public void seed() throws SQLException {
+        try (Statement st = admin.createStatement()) {
+            st.execute("TRUNCATE " + SCHEMA + ".webhook_outbox");
+            st.execute("INSERT INTO " + SCHEMA + ".webhook_outbox "
+                    + "(endpoint_url, tracking_code, event_id, status, event_timestamp, next_attempt_at) "
+                    + "SELECT 'http://parceiro/' || (g % 2), 'GWCLAIM' || g, g, 'DELIVERED', "
+                    + "LOCALTIMESTAMP, LOCALTIMESTAMP - interval '1 minute' "
+                    + "FROM generate_series(1, " + MESSAGES + ") g");
+        }
+        relayA = connect();
+        relayB = connect();
+    }
+
+    @AfterEach
+    public void close() throws SQLException {
+        for (Connection connection : List.of(relayA, relayB)) {
+            connection.rollback();
+            connection.close();
+        }
+    }
+
+    @Test
+    public void concurrentRelaysClaimDisjointBatchesWithoutWaiting() throws SQLException {
+        Set<Long> claimedByA = claim(relayA, 6);
+        // relayA ainda não confirmou: as 6 linhas continuam travadas
+        Set<Long> claimedByB = claim(relayB, 6);
+
+        assertEquals(6, claimedByA.size());
+        assertEquals(MESSAGES - 6, claimedByB.size());
+        Set<Long> overlap = new HashSet<>(claimedByA);
+        overlap.retainAll(claimedByB);
+        assertTrue(overlap.isEmpty(), "mensagens reivindicadas pelos dois relays: " + overlap);
+
+        relayA.commit();
+        relayB.commit();
+
+        // Lease: nada volta a ficar disponível antes de lease-seconds
+        assertTrue(claim(relayA, MESSAGES).isEmpty());
+    }
+
+    @Test
+    public void rolledBackClaimReleasesTheRows() throws SQLException {
+        Set<Long> claimedByA = claim(relayA, MESSAGES);
+        assertEquals(MESSAGES, claimedByA.size());
+        assertTrue(claim(relayB, MESSAGES).isEmpty());
+        relayB.commit();
+
+        // Relay caiu antes do COMMIT: o UPDATE do lease é desfeito junto
+        relayA.rollback();
+
+        assertEquals(claimedByA, claim(relayB, MESSAGES));
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private static Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(System.getenv("PLAN_TEST_DATABASE_URL"),
+                System.getenv().getOrDefault("PLAN_TEST_DATABASE_USER", "postgres"),
+                System.getenv().getOrDefault("PLAN_TEST_DATABASE_PASSWORD", "password"));
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET search_path TO " + SCHEMA);
+            // Sem SKIP LOCKED a segunda reivindicação ficaria bloqueada: falha em vez de travar o teste
+            st.execute("SET lock_timeout = '5s'");
+        }
+        connection.commit();
+        return connection;
+    }
+
+    private static Set<Long> claim(Connection connection, int batchSize) throws SQLException {
+        String sql = claimSql.replace(":batchSize", String.valueOf(batchSize)).replace(":leaseSeconds", "60");
+        Set<Long> ids = new HashSet<>();
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getLong("id"));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,282 @@
+package com.gwchallenge.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Testes de regressão de plano de execução para as queries de EventRepository e PackageRepository.
+ *
+ * Para cada query (derivada ou @Query) roda EXPLAIN (FORMAT JSON) com o SQL equivalente
+ * ao gerado pelo Hibernate e verifica:
+ * - que o índice esperado aparece no plano (nenhum Seq Scan na tabela principal)
+ * - que o custo total estimado fica abaixo do limite definido
+ *
+ * Requer um PostgreSQL local com as migrations aplicadas (database/migrations).
+ * Os dados sintéticos são inseridos em uma transação que sofre rollback ao final,
+ * então o banco não é alterado. Sem a variável PLAN_TEST_DATABASE_URL os testes são ignorados:
+ *
+ * PLAN_TEST_DATABASE_URL=jdbc:postgresql://localhost:5432/gwchallenge \
+ * PLAN_TEST_DATABASE_USER=postgres PLAN_TEST_DATABASE_PASSWORD=password ./mvnw test
+ */
+public class QueryPlanRegressionTest {
+
+    private static final int PACKAGES = 20_000;
+    private static final int EVENTS_PER_PACKAGE = 10;
+    private static final String CODE = "'PLAN0000010000'";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static Connection connection;
+
+    @BeforeAll
+    public static void seed() throws SQLException {
+        String url = System.getenv("PLAN_TEST_DATABASE_URL");
+        assumeTrue(url != null && !url.isBlank(), "PLAN_TEST_DATABASE_URL não definida");
+
+        connection = DriverManager.getConnection(url,
+                System.getenv().getOrDefault("PLAN_TEST_DATABASE_USER", "postgres"),
+                System.getenv().getOrDefault("PLAN_TEST_DATABASE_PASSWORD", "password"));
+        connection.setAutoCommit(false);
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("INSERT INTO package (tracking_code, client_name, delivery_address) " +
+                    "SELECT 'PLAN' || lpad(g::text, 10, '0'), 'Cliente ' || g, 'Endereço ' || g " +
+                    "FROM generate_series(1, " + PACKAGES + ") g");
+            st.execute("INSERT INTO event (status, event_timestamp, tracking_code) " +
+                    "SELECT 1 + (g % 7), now() - (g || ' minutes')::interval, " +
+                    "'PLAN' || lpad((1 + g % " + PACKAGES + ")::text, 10, '0') " +
+                    "FROM generate_series(1, " + PACKAGES * EVENTS_PER_PACKAGE + ") g");
+            st.execute("ANALYZE package");
+            st.execute("ANALYZE event");
+        }
+    }
+
+    @AfterAll
+    public static void rollback() throws SQLException {
+        if (connection != null) {
+            connection.rollback();
+            connection.close();
+        }
+    }
+
+    // ==================== EventRepository ====================
+
+    @Test
+    public void findByPackageEntity_TrackingCodeOrderByEventTimestampDesc() throws Exception {
+        assertPlan("SELECT * FROM event WHERE tracking_code = " + CODE + " ORDER BY event_timestamp DESC",
+                Set.of("idx_event_tracking_timestamp"), 100);
+    }
+
+    @Test
+    public void findByPackageEntity_TrackingCode() throws Exception {
+        assertPlan("SELECT * FROM event WHERE tracking_code = " + CODE,
+                Set.of("idx_event_tracking_code", "idx_event_tracking_timestamp", "idx_event_tracking_id"), 100);
+    }
+
+    @Test
+    public void findByPackageEntity_TrackingCodeAndIdGreaterThanOrderByIdAsc() throws Exception {
+        assertPlan("SELECT * FROM event WHERE tracking_code = " + CODE + " AND id > 100 ORDER BY id ASC LIMIT 501",
+                Set.of("idx_event_tracking_id"), 100);
+    }
+
+    @Test
+    public void findByPackageEntity_TrackingCodeAndEventTimestampAfterOrderByIdAsc() throws Exception {
+        assertPlan("SELECT * FROM event WHERE tracking_code = " + CODE +
+                        " AND event_timestamp > now() - interval '1 day' ORDER BY id ASC LIMIT 501",
+                Set.of("idx_event_tracking_timestamp", "idx_event_tracking_id"), 100);
+    }
+
+    @Test
+    public void findRecentResponses() throws Exception {
+        assertPlan("SELECT * FROM event WHERE tracking_code = " + CODE +
+                        " ORDER BY event_timestamp DESC, id DESC LIMIT 101",
+                Set.of("idx_event_tracking_timestamp"), 100);
+    }
+
+    @Test
+    public void findResponsesBefore() throws Exception {
+        assertPlan("SELECT * FROM event WHERE tracking_code = " + CODE +
+                        " AND event_timestamp <= now() AND (event_timestamp < now() OR id < 1000) " +
+                        "ORDER BY event_timestamp DESC, id DESC LIMIT 101",
+                Set.of("idx_event_tracking_timestamp"), 100);
+    }
+
+    @Test
+    public void countByPackageEntity_TrackingCode() throws Exception {
+        assertPlan("SELECT count(*) FROM event WHERE tracking_code = " + CODE,
+                Set.of("idx_event_tracking_code", "idx_event_tracking_timestamp", "idx_event_tracking_id"), 100);
+    }
+
+    @Test
+    public void deleteByIdReturningTrackingCode() throws Exception {
+        assertPlan("DELETE FROM event WHERE id = 42 RETURNING tracking_code",
+                Set.of("event_pkey"), 20);
+    }
+
+    @Test
+    public void searchByStatus() throws Exception {
+        assertPlan("SELECT * FROM event WHERE status = 6 AND event_timestamp >= now() - interval '6 hours' " +
+                        "AND event_timestamp <= now() " +
+                        "AND (event_timestamp < now() OR (event_timestamp = now() AND id < 0)) " +
+                        "ORDER BY event_timestamp DESC, id DESC LIMIT 101",
+                Set.of("idx_event_status_timestamp"), 500);
+    }
+
+    @Test
+    public void searchByTimeWindow() throws Exception {
+        assertPlan("SELECT * FROM event WHERE event_timestamp >= now() - interval '6 hours' " +
+                        "AND event_timestamp <= now() " +
+                        "AND (event_timestamp < now() OR (event_timestamp = now() AND id < 0)) " +
+                        "ORDER BY event_timestamp DESC, id DESC LIMIT 101",
+                Set.of("idx_event_timestamp_id"), 500);
+    }
+
+    /**
+     * Página profunda (janela com todos os eventos, cursor no meio dela): o cursor precisa
+     * estar na condição do índice, senão a varredura começa no fim da janela e descarta
+     * tudo o que vem antes do cursor.
+     */
+    @Test
+    public void searchByStatusDeepPage() throws Exception {
+        String cursor = "now() - interval '100000 minutes'";
+        String sql = "SELECT * FROM event WHERE status = 6 AND event_timestamp >= now() - interval '1000 days' " +
+                "AND event_timestamp <= " + cursor + " " +
+                "AND (event_timestamp < " + cursor + " OR (event_timestamp = " + cursor + " AND id < 0)) " +
+                "ORDER BY event_timestamp DESC, id DESC LIMIT 101";
+        assertPlan(sql, Set.of("idx_event_status_timestamp"), 500);
+        assertCursorInIndexCond(sql, "idx_event_status_timestamp");
+    }
+
+    @Test
+    public void searchByTimeWindowDeepPage() throws Exception {
+        String cursor = "now() - interval '100000 minutes'";
+        String sql = "SELECT * FROM event WHERE event_timestamp >= now() - interval '1000 days' " +
+                "AND event_timestamp <= " + cursor + " " +
+                "AND (event_timestamp < " + cursor + " OR (event_timestamp = " + cursor + " AND id < 0)) " +
+                "ORDER BY event_timestamp DESC, id DESC LIMIT 101";
+        assertPlan(sql, Set.of("idx_event_timestamp_id"), 500);
+        assertCursorInIndexCond(sql, "idx_event_timestamp_id");
+    }
+
+    // ==================== PackageRepository ====================
+
+    @Test
+    public void findByTrackingCode() throws Exception {
+        assertPlan("SELECT * FROM package WHERE tracking_code = " + CODE,
+                Set.of("package_pkey"), 20);
+    }
+
+    @Test
+    public void existsByTrackingCode() throws Exception {
+        assertPlan("SELECT tracking_code FROM package WHERE tracking_code = " + CODE + " LIMIT 1",
+                Set.of("package_pkey"), 20);
+    }
+
+    @Test
+    public void findByTrackingCodeWithEvents() throws Exception {
+        assertPlan("SELECT p.*, e.* FROM package p LEFT JOIN event e ON e.tracking_code = p.tracking_code " +
+                        "WHERE p.tracking_code = " + CODE,
+                Set.of("package_pkey"), 150);
+    }
+
+    @Test
+    public void findPackageJson() throws Exception {
+        assertPlan("SELECT p.*, e.* FROM package p LEFT JOIN (SELECT id, event_timestamp, status, description, " +
+                        "tracking_code FROM event WHERE tracking_code = " + CODE +
+                        " ORDER BY event_timestamp DESC, id DESC LIMIT 50) e ON e.tracking_code = p.tracking_code " +
+                        "WHERE p.tracking_code = " + CODE + " ORDER BY e.id",
+                Set.of("idx_event_tracking_timestamp"), 150);
+    }
+
+    @Test
+    public void deleteAllByTrackingCodeReturning() throws Exception {
+        assertPlan("DELETE FROM package WHERE tracking_code IN (" + CODE + ", 'PLAN0000010001') RETURNING tracking_code",
+                Set.of("package_pkey"), 30);
+    }
+
+    @Test
+    public void findTrackingCodesDeliveredBefore() throws Exception {
+        assertPlan("SELECT p.tracking_code FROM package p WHERE p.tracking_code > 'PLAN0000010000' " +
+                        "AND EXISTS (SELECT e.id FROM event e WHERE e.tracking_code = p.tracking_code " +
+                        "  AND e.status = 5 AND e.event_timestamp < now() - interval '30 days') " +
+                        "AND NOT EXISTS (SELECT e2.id FROM event e2 WHERE e2.tracking_code = p.tracking_code " +
+                        "  AND e2.event_timestamp >= now() - interval '30 days') " +
+                        "ORDER BY p.tracking_code LIMIT 500",
+                Set.of("package_pkey"), 50_000, true);
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private void assertPlan(String sql, Set<String> expectedIndexes, double maxCost) throws Exception {
+        assertPlan(sql, expectedIndexes, maxCost, false);
+    }
+
+    /**
+     * Roda EXPLAIN e verifica índice esperado, ausência de Seq Scan e custo máximo.
+     * O expurgo (anti-join sobre event) pode usar Seq Scan legitimamente; nele vale só o custo.
+     */
+    private void assertPlan(String sql, Set<String> expectedIndexes, double maxCost,
+                            boolean allowSeqScan) throws Exception {
+        JsonNode plan = explain(sql);
+
+        List<JsonNode> nodes = new ArrayList<>();
+        collect(plan, nodes);
+
+        boolean usesExpectedIndex = nodes.stream()
+                .anyMatch(n -> n.has("Index Name") && expectedIndexes.contains(n.get("Index Name").asText()));
+        boolean hasSeqScan = nodes.stream()
+                .anyMatch(n -> "Seq Scan".equals(n.path("Node Type").asText()));
+        double totalCost = plan.get("Total Cost").asDouble();
+
+        assertTrue(usesExpectedIndex, "Nenhum dos índices " + expectedIndexes + " foi usado:\n" + plan.toPrettyString());
+        assertFalse(hasSeqScan && !allowSeqScan, "Plano contém Seq Scan:\n" + plan.toPrettyString());
+        assertTrue(totalCost <= maxCost, "Custo estimado " + totalCost + " acima do limite " + maxCost
+                + ":\n" + plan.toPrettyString());
+    }
+
+    /**
+     * Verifica que o limite do cursor (event_timestamp <=) é condição de acesso do índice,
+     * e não um filtro aplicado depois da leitura.
+     */
+    private void assertCursorInIndexCond(String sql, String index) throws Exception {
+        JsonNode plan = explain(sql);
+        List<JsonNode> nodes = new ArrayList<>();
+        collect(plan, nodes);
+
+        boolean boundedByCursor = nodes.stream()
+                .filter(n -> index.equals(n.path("Index Name").asText()))
+                .anyMatch(n -> n.path("Index Cond").asText().contains("event_timestamp <="));
+        assertTrue(boundedByCursor, "Cursor fora da condição do índice " + index + ":\n" + plan.toPrettyString());
+    }
+
+    private JsonNode explain(String sql) throws Exception {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+            rs.next();
+            return MAPPER.readTree(rs.getString(1)).get(0).get("Plan");
+        }
+    }
+
+    private void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        JsonNode children = node.get("Plans");
+        if (children != null) {
+            children.forEach(child -> collect(child, nodes));
+        }
+    }
+}
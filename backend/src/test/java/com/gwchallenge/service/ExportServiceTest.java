@@ -0,0 +1,195 @@
+package com.gwchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gwchallenge.controller.ExportController;
+import com.gwchallenge.dto.EventResponseDTO;
+import com.gwchallenge.dto.PackageResponseDTO;
+import com.gwchallenge.export.ExportFormat;
+import com.gwchallenge.export.PackageRowWriter;
+import com.gwchallenge.model.EventStatus;
+import com.gwchallenge.repository.PackageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes da exportação em massa: ExportService (NDJSON e CSV) e o corpo transmitido pelo
+ * ExportController, com e sem gzip.
+ *
+ * O PackageRepository é um mock que entrega ao writer os pacotes de uma lista em memória,
+ * como o cursor de PackageJsonRepositoryImpl.scanPackages (código maior que o cursor, em ordem).
+ */
+public class ExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final List<PackageResponseDTO> packages = List.of(
+            pkg("GW1", "Ana", "Rua A",
+                    event(1L, LocalDateTime.of(2025, 1, 1, 10, 0), EventStatus.IN_TRANSIT, "Saiu do CD", "GW1"),
+                    event(2L, LocalDateTime.of(2025, 1, 2, 9, 30, 15, 250_000_000), EventStatus.DELIVERED, null, "GW1")),
+            pkg("GW2", "Bia \"B\"", "Rua B, 2"),
+            pkg("GW3", "Caio", "Rua C",
+                    event(3L, LocalDateTime.of(2025, 1, 3, 0, 0), EventStatus.OUT_FOR_DELIVERY, "Linha\nnova", "GW3")));
+
+    private final List<String> cursors = new ArrayList<>();
+
+    private ExportService exportService;
+    private ExportController exportController;
+
+    @BeforeEach
+    public void setUp() {
+        PackageRepository packageRepository = mock(PackageRepository.class);
+        when(packageRepository.scanPackages(anyString(), any()))
+                .thenAnswer(inv -> scan(inv.getArgument(0), inv.getArgument(1)));
+
+        exportService = new ExportService();
+        ReflectionTestUtils.setField(exportService, "packageRepository", packageRepository);
+        ReflectionTestUtils.setField(exportService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(exportService, "flushEvery", 2);
+
+        exportController = new ExportController();
+        ReflectionTestUtils.setField(exportController, "exportService", exportService);
+    }
+
+    @Test
+    public void ndjsonLinesMatchThePackageResponseFormat() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(3, exportService.exportPackages(ExportFormat.NDJSON, null, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(4, lines.length);
+        for (int i = 0; i < packages.size(); i++) {
+            assertEquals(objectMapper.writeValueAsString(packages.get(i)), lines[i]);
+        }
+        assertEquals("", lines[3]);
+        assertEquals(List.of(""), cursors);
+    }
+
+    @Test
+    public void csvHasOneRowPerEvent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportPackages(ExportFormat.CSV, null, out);
+
+        assertEquals("trackingCode,clientName,deliveryAddress,eventId,eventTimestamp,status,description\r\n"
+                + "GW1,Ana,Rua A,1,2025-01-01T10:00:00,IN_TRANSIT,Saiu do CD\r\n"
+                + "GW1,Ana,Rua A,2,2025-01-02T09:30:15.25,DELIVERED,\r\n"
+                + "GW2,\"Bia \"\"B\"\"\",\"Rua B, 2\",,,,\r\n"
+                + "GW3,Caio,Rua C,3,2025-01-03T00:00:00,OUT_FOR_DELIVERY,\"Linha\nnova\"\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void sinceResumesAfterTheLastReceivedPackage() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(1, exportService.exportPackages(ExportFormat.NDJSON, " GW2 ", out));
+
+        assertEquals(List.of("GW2"), cursors);
+        assertEquals(objectMapper.writeValueAsString(packages.get(2)) + "\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void outputStreamIsNotClosed() throws IOException {
+        ClosingAwareStream out = new ClosingAwareStream();
+
+        exportService.exportPackages(ExportFormat.NDJSON, null, out);
+        exportService.exportPackages(ExportFormat.CSV, null, out);
+
+        assertFalse(out.closed);
+    }
+
+    @Test
+    public void gzipBodyDecompressesToThePlainExport() throws IOException {
+        byte[] plain = stream(exportController.exportPackages("csv", null, null));
+
+        ResponseEntity<StreamingResponseBody> gzip = exportController.exportPackages("CSV", null, "br, gzip");
+        byte[] compressed = stream(gzip);
+
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, gzip.getHeaders().getFirst(HttpHeaders.VARY));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(plain, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void gzipRefusedWithQZeroSendsThePlainBody() throws IOException {
+        byte[] plain = stream(exportController.exportPackages("csv", null, null));
+
+        ResponseEntity<StreamingResponseBody> response = exportController.exportPackages("csv", null, "gzip;q=0");
+
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(plain, stream(response));
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private long scan(String after, PackageRowWriter writer) throws IOException {
+        cursors.add(after);
+        long written = 0;
+        for (PackageResponseDTO pkg : packages) {
+            if (pkg.getTrackingCode().compareTo(after) <= 0) {
+                continue;
+            }
+            writer.startPackage(pkg.getTrackingCode(), pkg.getClientName(), pkg.getDeliveryAddress());
+            for (EventResponseDTO event : pkg.getEvents()) {
+                writer.event(event.getId(), event.getEventTimestamp(), event.getStatus(), event.getDescription());
+            }
+            writer.endPackage(pkg.getTotalEvents());
+            written++;
+        }
+        return written;
+    }
+
+    private static byte[] stream(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static PackageResponseDTO pkg(String trackingCode, String clientName, String deliveryAddress,
+                                          EventResponseDTO... events) {
+        return new PackageResponseDTO(trackingCode, clientName, deliveryAddress, List.of(events));
+    }
+
+    private static EventResponseDTO event(Long id, LocalDateTime timestamp, EventStatus status,
+                                          String description, String trackingCode) {
+        return new EventResponseDTO(id, timestamp, status, description, trackingCode);
+    }
+
+    private static class ClosingAwareStream extends ByteArrayOutputStream {
+        boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
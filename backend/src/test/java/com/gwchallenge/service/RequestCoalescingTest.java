@@ -0,0 +1,223 @@
+package com.gwchallenge.service;
+
+import com.gwchallenge.concurrency.SingleFlight;
+import com.gwchallenge.dto.EventResponseDTO;
+import com.gwchallenge.dto.PackageResponseDTO;
+import com.gwchallenge.exception.ResourceNotFoundException;
+import com.gwchallenge.model.Package;
+import com.gwchallenge.repository.EventRepository;
+import com.gwchallenge.repository.PackageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes de concorrência da coalescência de leituras (SingleFlight) em
+ * PackageService.getPackageByTrackingCode e EventService.getEventsByTrackingCode.
+ *
+ * Os repositórios são mocks cuja consulta fica bloqueada até todas as threads
+ * estarem aguardando; só então a consulta é liberada. N chamadas simultâneas
+ * devem resultar em uma única consulta.
+ */
+public class RequestCoalescingTest {
+
+    private static final int CALLERS = 32;
+    private static final String CODE = "GWTEST0001";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PackageRepository packageRepository;
+    private EventRepository eventRepository;
+    private PackageService packageService;
+    private EventService eventService;
+
+    @BeforeEach
+    public void setUp() {
+        packageRepository = mock(PackageRepository.class);
+        eventRepository = mock(EventRepository.class);
+
+        // Mock: isDefinitelyAbsent == false (todas as consultas seguem para o repositório)
+        TrackingCodeFilter trackingCodeFilter = mock(TrackingCodeFilter.class);
+
+        packageService = new PackageService();
+        ReflectionTestUtils.setField(packageService, "packageRepository", packageRepository);
+        ReflectionTestUtils.setField(packageService, "eventRepository", eventRepository);
+        ReflectionTestUtils.setField(packageService, "packageEventsLimit", 50);
+        ReflectionTestUtils.setField(packageService, "trackingCodeFilter", trackingCodeFilter);
+        ReflectionTestUtils.setField(packageService, "singleFlightEnabled", true);
+        ReflectionTestUtils.setField(packageService, "singleFlightTimeoutMillis", 10_000L);
+        packageService.init();
+
+        eventService = new EventService();
+        ReflectionTestUtils.setField(eventService, "packageRepository", packageRepository);
+        ReflectionTestUtils.setField(eventService, "eventRepository", eventRepository);
+        ReflectionTestUtils.setField(eventService, "trackingCodeFilter", trackingCodeFilter);
+        ReflectionTestUtils.setField(eventService, "singleFlightEnabled", true);
+        ReflectionTestUtils.setField(eventService, "singleFlightTimeoutMillis", 10_000L);
+        eventService.init();
+    }
+
+    @Test
+    public void concurrentPackageReadsShareOneQuery() throws Exception {
+        Package pkg = new Package();
+        pkg.setTrackingCode(CODE);
+        pkg.setClientName("Cliente");
+        pkg.setDeliveryAddress("Endereço");
+        when(packageRepository.findByTrackingCode(CODE)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(pkg);
+        });
+
+        when(eventRepository.findRecentResponses(eq(CODE), any())).thenReturn(List.of());
+
+        List<Future<PackageResponseDTO>> results = runConcurrently(() -> packageService.getPackageByTrackingCode(CODE));
+
+        verify(packageRepository, times(1)).findByTrackingCode(CODE);
+        verify(eventRepository, times(1)).findRecentResponses(eq(CODE), any());
+        PackageResponseDTO first = results.get(0).get();
+        for (Future<PackageResponseDTO> result : results) {
+            assertSame(first, result.get());
+        }
+        assertEquals(CODE, first.getTrackingCode());
+    }
+
+    @Test
+    public void concurrentTimelineReadsShareOneQuery() throws Exception {
+        when(packageRepository.existsByTrackingCode(CODE)).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+        when(eventRepository.findByPackageEntity_TrackingCodeOrderByEventTimestampDesc(CODE))
+                .thenReturn(List.of());
+
+        List<Future<List<EventResponseDTO>>> results =
+                runConcurrently(() -> eventService.getEventsByTrackingCode(CODE));
+
+        verify(packageRepository, times(1)).existsByTrackingCode(CODE);
+        verify(eventRepository, times(1)).findByPackageEntity_TrackingCodeOrderByEventTimestampDesc(CODE);
+        for (Future<List<EventResponseDTO>> result : results) {
+            assertTrue(result.get().isEmpty());
+        }
+    }
+
+    @Test
+    public void loaderErrorIsPropagatedToEveryCaller() throws Exception {
+        when(packageRepository.findByTrackingCode(CODE)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.empty();
+        });
+
+        List<Future<PackageResponseDTO>> results = runConcurrently(() -> packageService.getPackageByTrackingCode(CODE));
+
+        verify(packageRepository, times(1)).findByTrackingCode(CODE);
+        for (Future<PackageResponseDTO> result : results) {
+            ExecutionException ex = assertThrows(ExecutionException.class, result::get);
+            assertInstanceOf(ResourceNotFoundException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    public void sequentialReadsAreNotCached() {
+        Package pkg = new Package();
+        pkg.setTrackingCode(CODE);
+        when(packageRepository.findByTrackingCode(CODE)).thenReturn(Optional.of(pkg));
+
+        packageService.getPackageByTrackingCode(CODE);
+        packageService.getPackageByTrackingCode(CODE);
+
+        verify(packageRepository, times(2)).findByTrackingCode(CODE);
+    }
+
+    @Test
+    public void followerLoadsOnItsOwnAfterTimeout() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(50);
+        AtomicInteger loads = new AtomicInteger();
+
+        FutureTask<String> leader = new FutureTask<>(() -> flight.execute(CODE, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "leader";
+        }));
+        new Thread(leader).start();
+        while (flight.inFlightCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        String follower = flight.execute(CODE, () -> {
+            loads.incrementAndGet();
+            return "follower";
+        });
+        release.countDown();
+
+        assertEquals("follower", follower);
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    // ==================== AUXILIARES ====================
+
+    /**
+     * Dispara CALLERS threads, espera todas ficarem bloqueadas (líder na consulta,
+     * seguidoras no future) e então libera a consulta.
+     */
+    private <T> List<Future<T>> runConcurrently(Callable<T> call) throws Exception {
+        List<FutureTask<T>> tasks = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            FutureTask<T> task = new FutureTask<>(call);
+            Thread thread = new Thread(task, "caller-" + i);
+            tasks.add(task);
+            threads.add(thread);
+            thread.start();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!threads.stream().allMatch(RequestCoalescingTest::isParked)) {
+            assertTrue(System.nanoTime() < deadline, "Threads não bloquearam a tempo");
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        return new ArrayList<>(tasks);
+    }
+
+    private static boolean isParked(Thread thread) {
+        Thread.State state = thread.getState();
+        return state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.gwchallenge.service;
+
+import com.gwchallenge.dto.StuckPackageDTO;
+import com.gwchallenge.model.Event;
+import com.gwchallenge.model.EventStatus;
+import com.gwchallenge.repository.ChangeFeedRepository;
+import com.gwchallenge.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes do índice de prazos do StuckPackageDetector com eventos fora de ordem.
+ *
+ * Sem transação ativa as atualizações são aplicadas na hora (mesmo caminho do afterCommit).
+ * O EventRepository é um mock que devolve o último evento "do banco" de cada pacote.
+ */
+public class StuckPackageDetectorTest {
+
+    private static final String CODE = "GWTEST0001";
+
+    private EventRepository eventRepository;
+    private StuckPackageDetector detector;
+
+    @BeforeEach
+    public void setUp() {
+        eventRepository = mock(EventRepository.class);
+        ChangeFeedRepository changeFeedRepository = mock(ChangeFeedRepository.class);
+        when(changeFeedRepository.findWatermarkSeq()).thenReturn(0L);
+        when(eventRepository.findLatestEventsWithStatus(anyList())).thenReturn(List.of());
+
+        detector = new StuckPackageDetector();
+        ReflectionTestUtils.setField(detector, "eventRepository", eventRepository);
+        ReflectionTestUtils.setField(detector, "changeFeedRepository", changeFeedRepository);
+        ReflectionTestUtils.setField(detector, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "inTransitSlaHours", 72L);
+        ReflectionTestUtils.setField(detector, "outForDeliverySlaHours", 24L);
+        detector.init();
+        detector.run(null);
+    }
+
+    @Test
+    public void lateTransitEventOfDeliveredPackageIsNotTracked() {
+        LocalDateTime delivered = LocalDateTime.now().minusHours(1);
+        latestInDatabase(EventStatus.DELIVERED, delivered);
+
+        // Leitura atrasada, ainda dentro do SLA, chega depois do DELIVERED
+        detector.recordEvent(CODE, EventStatus.IN_TRANSIT, delivered.minusHours(2));
+
+        assertEquals(0.0, tracked());
+    }
+
+    @Test
+    public void overdueLateEventOfDeliveredPackageIsNotABreach() {
+        LocalDateTime delivered = LocalDateTime.now().minusDays(1);
+        latestInDatabase(EventStatus.DELIVERED, delivered);
+
+        detector.recordEvent(CODE, EventStatus.OUT_FOR_DELIVERY, delivered.minusDays(5));
+
+        assertTrue(detector.getStuckPackages(null, 10).isEmpty());
+        assertEquals(0.0, tracked());
+    }
+
+    @Test
+    public void newestEventOfUntrackedPackageIsTracked() {
+        LocalDateTime inTransit = LocalDateTime.now().minusHours(1);
+        latestInDatabase(EventStatus.IN_TRANSIT, inTransit);
+
+        detector.recordEvent(CODE, EventStatus.IN_TRANSIT, inTransit);
+
+        assertEquals(1.0, tracked());
+    }
+
+    @Test
+    public void overdueNewestEventBecomesABreach() {
+        LocalDateTime outForDelivery = LocalDateTime.now().minusDays(2);
+        latestInDatabase(EventStatus.OUT_FOR_DELIVERY, outForDelivery);
+
+        detector.recordEvent(CODE, EventStatus.OUT_FOR_DELIVERY, outForDelivery);
+
+        List<StuckPackageDTO> stuck = detector.getStuckPackages(null, 10);
+        assertEquals(1, stuck.size());
+        assertEquals(CODE, stuck.get(0).getTrackingCode());
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private void latestInDatabase(EventStatus status, LocalDateTime eventTimestamp) {
+        Event event = new Event();
+        event.setStatus(status);
+        event.setEventTimestamp(eventTimestamp);
+        when(eventRepository.findFirstByPackageEntity_TrackingCodeOrderByEventTimestampDescIdDesc(CODE))
+                .thenReturn(Optional.of(event));
+    }
+
+    private double tracked() {
+        return ((SimpleMeterRegistry) ReflectionTestUtils.getField(detector, "meterRegistry"))
+                .get("gw.stuck.tracked").gauge().value();
+    }
+}
@@ -0,0 +1,127 @@
+package com.gwchallenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gwchallenge.dto.CreatePackageDTO;
+import com.gwchallenge.dto.PackageResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes do WarmupRunner: caminhos exercitados em cada iteração e rollback de todas elas.
+ *
+ * Os serviços são mocks; o PlatformTransactionManager devolve um SimpleTransactionStatus
+ * por iteração, guardado para conferir que todas terminaram marcadas para rollback.
+ */
+public class WarmupRunnerTest {
+
+    private static final int ITERATIONS = 5;
+
+    private PackageService packageService;
+    private EventService eventService;
+    private PlatformTransactionManager transactionManager;
+    private final List<SimpleTransactionStatus> transactions = new ArrayList<>();
+
+    private WarmupRunner runner;
+
+    @BeforeEach
+    public void setUp() {
+        packageService = mock(PackageService.class);
+        eventService = mock(EventService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+            SimpleTransactionStatus status = new SimpleTransactionStatus();
+            transactions.add(status);
+            return status;
+        });
+        when(packageService.createPackage(any())).thenAnswer(inv -> dto(inv.getArgument(0)));
+        when(packageService.getPackageByTrackingCode(anyString()))
+                .thenAnswer(inv -> new PackageResponseDTO(inv.getArgument(0), "Warmup", "Warmup", List.of()));
+        when(packageService.getPackageJson(anyString()))
+                .thenReturn("{\"trackingCode\":\"WARMUP\"}".getBytes(StandardCharsets.UTF_8));
+        when(eventService.getEventsByTrackingCode(anyString())).thenReturn(List.of());
+
+        runner = new WarmupRunner();
+        ReflectionTestUtils.setField(runner, "packageService", packageService);
+        ReflectionTestUtils.setField(runner, "eventService", eventService);
+        ReflectionTestUtils.setField(runner, "objectMapper", new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        ReflectionTestUtils.setField(runner, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(runner, "enabled", true);
+        ReflectionTestUtils.setField(runner, "maxIterations", ITERATIONS);
+        ReflectionTestUtils.setField(runner, "maxDurationMillis", 60_000L);
+        ReflectionTestUtils.setField(runner, "plateauWindow", 1_000);
+        ReflectionTestUtils.setField(runner, "plateauTolerance", 0.05);
+    }
+
+    @Test
+    public void everyIterationWarmsBothPackageReadPathsInsideTheTransaction() {
+        runner.run(null);
+
+        ArgumentCaptor<CreatePackageDTO> created = ArgumentCaptor.forClass(CreatePackageDTO.class);
+        verify(packageService, times(ITERATIONS)).createPackage(created.capture());
+        InOrder order = inOrder(transactionManager, packageService);
+        for (CreatePackageDTO dto : created.getAllValues()) {
+            order.verify(transactionManager).getTransaction(any());
+            order.verify(packageService).createPackage(dto);
+            // Caminho JSON de GET /api/packages/{trackingCode} (linhas → JsonGenerator)
+            order.verify(packageService).getPackageJson(dto.getTrackingCode());
+            order.verify(packageService).getPackageByTrackingCode(dto.getTrackingCode());
+            order.verify(transactionManager).commit(any(TransactionStatus.class));
+        }
+    }
+
+    @Test
+    public void everyIterationIsRolledBack() {
+        runner.run(null);
+
+        assertEquals(ITERATIONS, transactions.size());
+        assertTrue(transactions.stream().allMatch(SimpleTransactionStatus::isRollbackOnly));
+    }
+
+    @Test
+    public void failureStopsTheWarmupWithoutFailingStartup() {
+        when(packageService.getPackageJson(anyString())).thenThrow(new IllegalStateException("falha"));
+
+        runner.run(null);
+
+        verify(packageService, times(1)).createPackage(any());
+        verify(packageService, never()).getPackageByTrackingCode(anyString());
+    }
+
+    @Test
+    public void disabledRunnerDoesNothing() {
+        ReflectionTestUtils.setField(runner, "enabled", false);
+
+        runner.run(null);
+
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    private static PackageResponseDTO dto(CreatePackageDTO dto) {
+        return new PackageResponseDTO(dto.getTrackingCode(), dto.getClientName(), dto.getDeliveryAddress(), List.of());
+    }
+}
@@ -0,0 +1,254 @@
+package com.gwchallenge.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gwchallenge.model.EventStatus;
+import com.gwchallenge.model.OutboxMessage;
+import com.gwchallenge.repository.OutboxRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes de entrega da outbox: WebhookRelay + OutboxService + WebhookClient contra um
+ * servidor HTTP local (com.sun.net.httpserver) no lugar dos parceiros.
+ *
+ * O OutboxRepository é um mock sobre uma lista em memória que reproduz o claim
+ * (pendentes com next_attempt_at vencido, empurrado pelo lease) e o markDelivered.
+ * A disputa entre relays por FOR UPDATE SKIP LOCKED depende do PostgreSQL e está em
+ * OutboxClaimConcurrencyTest.
+ */
+public class WebhookRelayTest {
+
+    private final List<OutboxMessage> outbox = new CopyOnWriteArrayList<>();
+
+    /** Corpos recebidos pelo servidor, por caminho (/a, /b). */
+    private final Map<String, List<JsonNode>> received = new ConcurrentHashMap<>();
+
+    /** Status HTTP da n-ésima requisição (0, 1, ...) recebida pelo servidor. */
+    private volatile IntUnaryOperator responseStatus = n -> 204;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HttpServer server;
+    private String baseUrl;
+    private OutboxService outboxService;
+    private WebhookRelay relay;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                received.computeIfAbsent(exchange.getRequestURI().getPath(), k -> new CopyOnWriteArrayList<>())
+                        .add(objectMapper.readTree(body));
+            }
+            exchange.sendResponseHeaders(responseStatus.applyAsInt(requests.getAndIncrement()), -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        OutboxRepository outboxRepository = mock(OutboxRepository.class);
+        when(outboxRepository.claimBatch(anyInt(), anyInt())).thenAnswer(inv -> claim(inv.getArgument(0), inv.getArgument(1)));
+        when(outboxRepository.markDelivered(any(), any())).thenAnswer(inv -> markDelivered(inv.getArgument(0), inv.getArgument(1)));
+        when(outboxRepository.findAllById(any())).thenAnswer(inv -> findAllById(inv.getArgument(0)));
+
+        outboxService = new OutboxService();
+        ReflectionTestUtils.setField(outboxService, "outboxRepository", outboxRepository);
+        ReflectionTestUtils.setField(outboxService, "endpoints", new String[]{baseUrl + "/a", baseUrl + "/b"});
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outboxService, "initialBackoffSeconds", 0L);
+        ReflectionTestUtils.setField(outboxService, "maxBackoffSeconds", 0L);
+
+        WebhookClient webhookClient = new WebhookClient();
+        ReflectionTestUtils.setField(webhookClient, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(webhookClient, "timeoutMillis", 2000L);
+        webhookClient.init();
+
+        relay = new WebhookRelay();
+        ReflectionTestUtils.setField(relay, "outboxService", outboxService);
+        ReflectionTestUtils.setField(relay, "outboxRepository", outboxRepository);
+        ReflectionTestUtils.setField(relay, "webhookClient", webhookClient);
+        ReflectionTestUtils.setField(relay, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 200);
+        ReflectionTestUtils.setField(relay, "leaseSeconds", 60);
+        ReflectionTestUtils.setField(relay, "maxConcurrency", 4);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerCycle", 10);
+        relay.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        relay.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void deliversOnePostPerEndpoint() {
+        OutboxMessage a1 = pending(1L, "/a", "GWTEST0001");
+        OutboxMessage a2 = pending(2L, "/a", "GWTEST0002");
+        OutboxMessage b1 = pending(3L, "/b", "GWTEST0001");
+
+        relay.relay();
+
+        assertEquals(2, requests.get());
+        assertEquals(List.of("GWTEST0001", "GWTEST0002"), trackingCodes(received.get("/a").get(0)));
+        assertEquals(List.of("GWTEST0001"), trackingCodes(received.get("/b").get(0)));
+        for (OutboxMessage message : List.of(a1, a2, b1)) {
+            assertNotNull(message.getDeliveredAt());
+            assertEquals(1, message.getAttempts());
+        }
+        assertEquals(3.0, meterRegistry.counter("gw.outbox.delivered").count());
+
+        // Entregues não são reivindicadas de novo
+        relay.relay();
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void retriesFailedDeliveryWithBackoff() {
+        responseStatus = n -> n == 0 ? 503 : 204;
+        OutboxMessage message = pending(1L, "/a", "GWTEST0001");
+
+        relay.relay();
+
+        assertNull(message.getDeliveredAt());
+        assertNull(message.getFailedAt());
+        assertEquals(1, message.getAttempts());
+        assertTrue(message.getLastError().contains("503"), message.getLastError());
+        assertNotNull(message.getNextAttemptAt());
+        assertEquals(1.0, meterRegistry.counter("gw.outbox.failed").count());
+
+        // Backoff zerado no teste: a nova tentativa já está vencida no ciclo seguinte
+        relay.relay();
+
+        assertNotNull(message.getDeliveredAt());
+        assertEquals(2, message.getAttempts());
+        assertEquals(2, received.get("/a").size());
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() {
+        responseStatus = n -> 500;
+        OutboxMessage message = pending(1L, "/b", "GWTEST0001");
+
+        for (int i = 0; i < 5; i++) {
+            relay.relay();
+        }
+
+        assertEquals(3, requests.get());
+        assertEquals(3, message.getAttempts());
+        assertNotNull(message.getFailedAt());
+        assertNull(message.getDeliveredAt());
+        assertEquals(1.0, meterRegistry.counter("gw.outbox.exhausted").count());
+    }
+
+    @Test
+    public void messageIsNotClaimedAgainBeforeBackoffExpires() {
+        responseStatus = n -> 503;
+        ReflectionTestUtils.setField(outboxService, "initialBackoffSeconds", 60L);
+        ReflectionTestUtils.setField(outboxService, "maxBackoffSeconds", 3600L);
+        pending(1L, "/a", "GWTEST0001");
+
+        relay.relay();
+        relay.relay();
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void backoffGrowsExponentiallyUpToTheCapWithJitter() {
+        ReflectionTestUtils.setField(outboxService, "initialBackoffSeconds", 5L);
+        ReflectionTestUtils.setField(outboxService, "maxBackoffSeconds", 60L);
+
+        for (int i = 0; i < 100; i++) {
+            assertBetween(4_000, 5_000, outboxService.backoffMillis(1));
+            assertBetween(8_000, 10_000, outboxService.backoffMillis(2));
+            assertBetween(16_000, 20_000, outboxService.backoffMillis(3));
+            assertBetween(48_000, 60_000, outboxService.backoffMillis(5));
+            assertBetween(48_000, 60_000, outboxService.backoffMillis(40));
+        }
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private OutboxMessage pending(Long id, String path, String trackingCode) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(id);
+        message.setEndpointUrl(baseUrl + path);
+        message.setTrackingCode(trackingCode);
+        message.setEventId(id * 10);
+        message.setStatus(EventStatus.DELIVERED);
+        message.setEventTimestamp(LocalDateTime.now().minusMinutes(1));
+        message.setCreatedAt(LocalDateTime.now());
+        message.setNextAttemptAt(LocalDateTime.now());
+        outbox.add(message);
+        return message;
+    }
+
+    /** Mesma seleção de OutboxRepository.claimBatch (sem a disputa entre transações). */
+    private List<OutboxMessage> claim(int batchSize, int leaseSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> batch = outbox.stream()
+                .filter(m -> m.getDeliveredAt() == null && m.getFailedAt() == null && !m.getNextAttemptAt().isAfter(now))
+                .limit(batchSize)
+                .collect(Collectors.toList());
+        batch.forEach(m -> m.setNextAttemptAt(now.plusSeconds(leaseSeconds)));
+        return batch;
+    }
+
+    private int markDelivered(Collection<Long> ids, LocalDateTime deliveredAt) {
+        List<OutboxMessage> messages = findAllById(ids);
+        messages.forEach(m -> {
+            m.setDeliveredAt(deliveredAt);
+            m.setAttempts(m.getAttempts() + 1);
+        });
+        return messages.size();
+    }
+
+    private List<OutboxMessage> findAllById(Iterable<Long> ids) {
+        List<Long> wanted = new ArrayList<>();
+        ids.forEach(wanted::add);
+        return outbox.stream().filter(m -> wanted.contains(m.getId())).collect(Collectors.toList());
+    }
+
+    private static List<String> trackingCodes(JsonNode body) {
+        List<String> codes = new ArrayList<>();
+        body.forEach(node -> codes.add(node.get("trackingCode").asText()));
+        return codes;
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual >= min && actual <= max, actual + " fora de [" + min + ", " + max + "]");
+    }
+}
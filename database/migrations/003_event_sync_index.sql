@@ -0,0 +1,7 @@
+-- Migration 003: índice para sincronização incremental da timeline
+-- Suporta GET /api/events/package/{trackingCode}?sinceId=... (busca por keyset)
+
+-- Índice composto (tracking_code, id)
+-- Permite buscar apenas os eventos com id maior que o cursor do cliente,
+-- lendo somente as entradas novas do índice em vez da timeline inteira
+CREATE INDEX IF NOT EXISTS idx_event_tracking_id ON event(tracking_code, id);
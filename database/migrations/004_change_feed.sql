@@ -0,0 +1,19 @@
+-- Migration 004: feed de alterações (change feed) para consumidores externos
+-- Substitui a varredura completa de GET /api/events por leitura incremental:
+-- GET /api/events/feed?after=<seq>&limit=N
+
+-- Tabela append-only com uma linha por alteração (criação ou remoção)
+-- Não tem FK para package: tombstones continuam existindo após o DELETE do pacote
+CREATE TABLE IF NOT EXISTS change_feed (
+  seq BIGSERIAL PRIMARY KEY,                          -- Sequência monotônica (cursor dos consumidores)
+  change_type VARCHAR(30) NOT NULL,                   -- PACKAGE_CREATED, EVENT_CREATED, EVENT_DELETED, PACKAGE_DELETED
+  tracking_code VARCHAR(50) NOT NULL,                 -- Pacote afetado
+  event_id BIGINT,                                    -- Evento afetado (null para alterações de pacote)
+  status VARCHAR(30),                                 -- Snapshot do status do evento criado
+  event_timestamp TIMESTAMP,                          -- Snapshot da data/hora do evento criado
+  description TEXT,                                   -- Snapshot da descrição do evento criado
+  recorded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP -- Momento em que a alteração foi registrada
+);
+
+-- A leitura por keyset (seq > :after ORDER BY seq) usa diretamente a chave primária,
+-- então nenhum índice adicional é necessário
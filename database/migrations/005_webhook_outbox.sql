@@ -0,0 +1,23 @@
+-- Migration 005: outbox transacional para notificações de parceiros (webhooks)
+-- A linha é gravada na mesma transação do evento; um relay em background entrega depois
+
+CREATE TABLE IF NOT EXISTS webhook_outbox (
+  id BIGSERIAL PRIMARY KEY,                               -- ID da mensagem (também chave de idempotência)
+  endpoint_url VARCHAR(500) NOT NULL,                     -- Endpoint do parceiro
+  tracking_code VARCHAR(50) NOT NULL,                     -- Pacote notificado
+  event_id BIGINT NOT NULL,                               -- Evento que originou a notificação
+  status VARCHAR(30) NOT NULL,                            -- OUT_FOR_DELIVERY ou DELIVERED
+  event_timestamp TIMESTAMP NOT NULL,                     -- Data/hora do evento
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, -- Momento da gravação (base da métrica de lag)
+  attempts INTEGER NOT NULL DEFAULT 0,                    -- Tentativas de entrega já feitas
+  next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, -- Próxima tentativa (backoff / lease)
+  delivered_at TIMESTAMP,                                 -- Preenchido quando entregue
+  failed_at TIMESTAMP,                                    -- Preenchido quando desistimos (máximo de tentativas)
+  last_error TEXT                                         -- Último erro de entrega
+);
+
+-- Índice parcial: contém apenas mensagens pendentes, então continua pequeno
+-- mesmo com milhões de mensagens já entregues
+CREATE INDEX IF NOT EXISTS idx_outbox_pending
+  ON webhook_outbox(next_attempt_at, id)
+  WHERE delivered_at IS NULL AND failed_at IS NULL;
@@ -0,0 +1,6 @@
+-- Migration 006: coluna description em event
+-- A entidade Event já mapeia description; em bancos criados pelas migrations
+-- a coluna só existia quando o Hibernate (ddl-auto=update) a adicionava.
+-- Necessária para rodar o perfil prod (ddl-auto=none, schema gerenciado apenas por migrations).
+
+ALTER TABLE event ADD COLUMN IF NOT EXISTS description TEXT;
@@ -0,0 +1,51 @@
+-- Migration 007: armazenamento compacto de status e timestamps em event
+--
+-- Antes: status como ENUM nativo de 4 valores (ou VARCHAR, quando criado pelo Hibernate)
+--        e event_timestamp como TIMESTAMP sem fuso
+-- Depois: status como SMALLINT (código estável de EventStatus) e event_timestamp como TIMESTAMPTZ em UTC
+--
+-- ATENÇÃO: ALTER COLUMN TYPE reescreve a tabela e os índices sob lock exclusivo.
+-- Em bases grandes, execute em janela de manutenção.
+
+-- Tabela de referência dos códigos (documentação para consultas manuais / BI)
+-- Deve ficar sincronizada com o enum EventStatus do backend
+CREATE TABLE IF NOT EXISTS event_status_code (
+  code SMALLINT PRIMARY KEY,
+  name VARCHAR(30) NOT NULL UNIQUE
+);
+
+INSERT INTO event_status_code (code, name) VALUES
+  (1, 'CREATED'),
+  (2, 'SHIPPED'),
+  (3, 'IN_TRANSIT'),
+  (4, 'OUT_FOR_DELIVERY'),
+  (5, 'DELIVERED'),
+  (6, 'UNDELIVERED'),
+  (7, 'RETURNED')
+ON CONFLICT (code) DO NOTHING;
+
+-- Status: texto/enum → SMALLINT (funciona tanto para o ENUM nativo quanto para VARCHAR)
+ALTER TABLE event
+  ALTER COLUMN status TYPE SMALLINT USING (
+    CASE status::text
+      WHEN 'CREATED' THEN 1
+      WHEN 'SHIPPED' THEN 2
+      WHEN 'IN_TRANSIT' THEN 3
+      WHEN 'OUT_FOR_DELIVERY' THEN 4
+      WHEN 'DELIVERED' THEN 5
+      WHEN 'UNDELIVERED' THEN 6
+      WHEN 'RETURNED' THEN 7
+    END
+  );
+
+-- Garante que só códigos conhecidos sejam gravados (sem custo de FK a cada INSERT)
+ALTER TABLE event ADD CONSTRAINT chk_event_status CHECK (status BETWEEN 1 AND 7);
+
+-- O tipo ENUM nativo deixa de ser usado
+DROP TYPE IF EXISTS event_status;
+
+-- Timestamp: TIMESTAMP (sem fuso, gravado em UTC pela aplicação) → TIMESTAMPTZ
+ALTER TABLE event ALTER COLUMN event_timestamp DROP DEFAULT;
+ALTER TABLE event
+  ALTER COLUMN event_timestamp TYPE TIMESTAMPTZ USING event_timestamp AT TIME ZONE 'UTC';
+ALTER TABLE event ALTER COLUMN event_timestamp SET DEFAULT now();
@@ -0,0 +1,13 @@
+-- Migration 008: índices para consultas entre pacotes por status e janela de tempo
+-- Suporta GET /api/events/search?status=&from=&to= (paginação por keyset)
+
+-- B-tree (status, event_timestamp, id): "todos os UNDELIVERED nas últimas 6 horas"
+-- lê apenas a faixa do status/janela, já na ordem da paginação (id desempata o keyset)
+CREATE INDEX IF NOT EXISTS idx_event_status_timestamp ON event(status, event_timestamp, id);
+
+-- BRIN em event_timestamp: para buscas só por janela de tempo (sem status).
+-- Os eventos são inseridos em ordem aproximadamente cronológica, então cada faixa
+-- de páginas da tabela cobre um intervalo estreito de tempo. O índice ocupa poucos KB
+-- mesmo com bilhões de linhas (contra GBs de um B-tree equivalente).
+CREATE INDEX IF NOT EXISTS idx_event_timestamp_brin ON event USING brin (event_timestamp)
+  WITH (pages_per_range = 32);
@@ -0,0 +1,7 @@
+-- Migration 009: sequence para o gerador de códigos de rastreio (hi/lo)
+-- Usada apenas com gw.tracking-code.generator.enabled=true
+
+-- Cada valor reserva um bloco de 1000 códigos (TrackingCodeGenerator.BLOCK_SIZE),
+-- distribuídos em memória pela instância que o obteve. Começa em 1: o bloco 0 (valores
+-- 0-999) nunca é usado.
+CREATE SEQUENCE IF NOT EXISTS tracking_code_block_seq START WITH 1 INCREMENT BY 1;
@@ -0,0 +1,14 @@
+-- Migration 010: ordem de entrega do feed de alterações sem lock entre escritores
+-- Antes, cada transação que gravava no feed tomava um advisory lock global até o COMMIT
+-- (para as linhas ficarem visíveis na ordem do seq), serializando todas as escritas de
+-- todos os nós. Agora cada linha guarda a transação que a gravou, e o leitor entrega em
+-- ordem (txid, seq) apenas linhas com txid < pg_snapshot_xmin(pg_current_snapshot()):
+-- todas as transações abaixo desse limite já terminaram, então nenhuma linha nova pode
+-- aparecer antes do cursor de um consumidor.
+
+-- Linhas existentes recebem o txid desta migration (o mesmo para todas, ordenadas pelo seq
+-- entre si e antes de qualquer escrita posterior). Requer PostgreSQL 13+ (xid8).
+ALTER TABLE change_feed ADD COLUMN IF NOT EXISTS txid xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+-- Leitura por keyset em (txid, seq) e busca do cursor de partida (marca d'água)
+CREATE INDEX IF NOT EXISTS idx_change_feed_txid_seq ON change_feed(txid, seq);
@@ -0,0 +1,12 @@
+-- Migration 011: B-tree (event_timestamp, id) para a busca só por janela de tempo
+-- GET /api/events/search?from=&to= (sem status) pagina por keyset em (event_timestamp, id)
+-- decrescente. O BRIN da migration 008 só filtra faixas de páginas: não devolve linhas em
+-- ordem, então cada página lia e ordenava a janela inteira até o cursor (custo crescente
+-- a cada página). O B-tree entrega a partir do cursor já na ordem da paginação, lendo só
+-- as linhas da página.
+
+-- Custo: ~30 bytes por evento (contra poucos KB do BRIN) e uma entrada a mais por INSERT
+CREATE INDEX IF NOT EXISTS idx_event_timestamp_id ON event(event_timestamp, id);
+
+-- Sem outra consulta por event_timestamp sozinho, o BRIN deixa de ser usado
+DROP INDEX IF EXISTS idx_event_timestamp_brin;
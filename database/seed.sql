@@ -1,5 +1,6 @@
 -- Script de seed: dados iniciais para testes do sistema
 -- Insere encomendas e eventos fictícios para validar funcionalidades
+-- Status gravados como código SMALLINT (3=IN_TRANSIT, 4=OUT_FOR_DELIVERY, 5=DELIVERED, 6=UNDELIVERED)
 
 -- Inserção de encomendas de teste
 INSERT INTO package (tracking_code, client_name, delivery_address) VALUES
@@ -9,18 +10,18 @@ INSERT INTO package (tracking_code, client_name, delivery_address) VALUES
 
 -- Inserção de eventos para a primeira encomenda (fluxo completo normal)
 INSERT INTO event (status, event_timestamp, tracking_code) VALUES
-('OUT_FOR_DELIVERY', '2025-11-01 08:00:00', 'BR123456789'),
-('IN_TRANSIT', '2025-11-01 10:30:00', 'BR123456789'),
-('DELIVERED', '2025-11-01 14:45:00', 'BR123456789');
+(4, '2025-11-01 08:00:00', 'BR123456789'),
+(3, '2025-11-01 10:30:00', 'BR123456789'),
+(5, '2025-11-01 14:45:00', 'BR123456789');
 
 -- Inserção de eventos para a segunda encomenda (fluxo com tentativa falha)
 INSERT INTO event (status, event_timestamp, tracking_code) VALUES
-('OUT_FOR_DELIVERY', '2025-11-01 09:00:00', 'BR987654321'),
-('IN_TRANSIT', '2025-11-01 11:00:00', 'BR987654321'),
-('UNDELIVERED', '2025-11-01 15:00:00', 'BR987654321'),
-('OUT_FOR_DELIVERY', '2025-11-02 08:00:00', 'BR987654321');
+(4, '2025-11-01 09:00:00', 'BR987654321'),
+(3, '2025-11-01 11:00:00', 'BR987654321'),
+(6, '2025-11-01 15:00:00', 'BR987654321'),
+(4, '2025-11-02 08:00:00', 'BR987654321');
 
 -- Inserção de eventos para a terceira encomenda (ainda em trânsito)
 INSERT INTO event (status, event_timestamp, tracking_code) VALUES
-('OUT_FOR_DELIVERY', '2025-11-02 07:00:00', 'BR456789123'),
-('IN_TRANSIT', '2025-11-02 09:00:00', 'BR456789123');
+(4, '2025-11-02 07:00:00', 'BR456789123'),
+(3, '2025-11-02 09:00:00', 'BR456789123');
@@ -71,7 +71,7 @@ api.interceptors.response.use(
     }
     // Extrair mensagem de erro da resposta ou usar mensagem padrão
     const errorMessage =
-      error.response?.data?.message || error.message || 'Erro desconhecido na API';
+      error.response?.data?.detail || error.message || 'Erro desconhecido na API';
     // Retornar erro formatado
     return Promise.reject(new Error(errorMessage));
   }
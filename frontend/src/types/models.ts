@@ -66,7 +66,8 @@ export interface Package {
   trackingCode: string; // Primary Key
   clientName: string;
   deliveryAddress: string;
-  events: Event[]; // ✅ Lista de eventos (DTOs, não entidades)
+  events: Event[]; // ✅ Lista de eventos (DTOs, não entidades); na busca por código, só os mais recentes
+  totalEvents?: number; // Total de eventos do pacote (pode ser maior que events.length)
 }
 
 // ======================== DTOs (Data Transfer Objects) ========================
@@ -92,13 +93,14 @@ export interface CreateEventDTO {
 // ======================== RESPOSTAS DE ERRO ========================
 
 /**
- * Estrutura de erro retornada pela API
+ * Estrutura de erro retornada pela API (problem+json, RFC 7807)
  */
 export interface ApiError {
-  message: string;
-  statusCode?: number;
-  timestamp?: string;
-  path?: string;
+  type: string;
+  title: string;
+  status: number;
+  detail?: string;
+  instance?: string;
 }
 
 // ======================== TIPOS UTILITÁRIOS ========================